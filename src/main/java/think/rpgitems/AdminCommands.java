@@ -30,6 +30,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.scheduler.BukkitRunnable;
+import think.rpgitems.data.SessionManager;
 import think.rpgitems.item.ItemGroup;
 import think.rpgitems.item.ItemManager;
 import think.rpgitems.item.RPGItem;
@@ -298,6 +299,17 @@ public class AdminCommands extends RPGCommandReceiver {
         }
     }
 
+    @SubCommand("memory")
+    public void memory(CommandSender sender, Arguments args) {
+        long total = 0;
+        for (SessionManager.Store store : SessionManager.instance().getStores()) {
+            long bytes = store.estimateBytes();
+            total += bytes;
+            I18n.sendMessage(sender, "message.memory.store", store.name(), store.entries(), bytes / 1024);
+        }
+        I18n.sendMessage(sender, "message.memory.total", total / 1024);
+    }
+
     @SubCommand("save-all")
     public void save(CommandSender sender, Arguments args) {
         ItemManager.save();
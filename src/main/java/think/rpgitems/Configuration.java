@@ -4,6 +4,7 @@ import cat.nyaa.nyaacore.configuration.PluginConfigure;
 import org.bukkit.plugin.java.JavaPlugin;
 import think.rpgitems.item.RPGItem;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -76,6 +77,24 @@ public class Configuration extends PluginConfigure {
     }
     @Serializable(name = "general.item.show_cooldown_warning_to_actionbar")
     public boolean showCooldownActionbar = false;
+    // triggers (by name or base trigger) that fire RPGItemsPowersPreFireEvent / PostFireEvent
+    // empty for all triggers
+    @Serializable(name = "general.power.fire_event_triggers")
+    public List<String> fireEventTriggers = new ArrayList<>();
+    // split players into this many groups, each ticked on its own tick
+    // note: tick powers of a player then run once every this many ticks
+    @Serializable(name = "general.ticker.shards")
+    public int tickerShards = 1;
+    // time the ticker may spend per tick in microseconds, players left over are ticked on the next tick
+    // 0 for unlimited
+    @Serializable(name = "general.ticker.budget_us")
+    public long tickerBudgetMicros = 0;
+    // seconds between reports of ticks over budget, with the slowest items, 0 to disable
+    @Serializable(name = "general.ticker.report_interval")
+    public int tickerReportInterval = 60;
+    // log the time spent on each armour piece of players taking damage
+    @Serializable(name = "general.debug.armour_timing")
+    public boolean debugArmourTiming = false;
 
     public Configuration(RPGItems plugin) {
         this.plugin = plugin;
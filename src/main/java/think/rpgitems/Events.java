@@ -5,7 +5,6 @@ import cat.nyaa.nyaacore.utils.TridentUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.*;
 import org.bukkit.event.*;
@@ -25,21 +24,25 @@ import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.projectiles.ProjectileSource;
 import org.bukkit.scheduler.BukkitRunnable;
 import think.rpgitems.data.Context;
+import think.rpgitems.data.DamageFrame;
+import think.rpgitems.data.LaunchContext;
+import think.rpgitems.data.ProjectileRegistry;
 import think.rpgitems.event.BeamEndEvent;
 import think.rpgitems.event.BeamHitBlockEvent;
 import think.rpgitems.event.BeamHitEntityEvent;
+import think.rpgitems.item.ArmourPipeline;
 import think.rpgitems.item.ItemManager;
 import think.rpgitems.item.RPGItem;
 import think.rpgitems.power.Pimpl;
 import think.rpgitems.power.PowerSneak;
 import think.rpgitems.power.PowerSprint;
+import think.rpgitems.power.TriggerSlotIndex;
 import think.rpgitems.power.Utils;
 import think.rpgitems.power.marker.Ranged;
 import think.rpgitems.power.trigger.BaseTriggers;
 import think.rpgitems.power.trigger.Trigger;
 import think.rpgitems.support.WGHandler;
 import think.rpgitems.support.WGSupport;
-import think.rpgitems.utils.LightContext;
 
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
@@ -59,14 +62,6 @@ public class Events implements Listener {
     public static final String SUPPRESS_PROJECTILE = "SuppressProjectile";
     public static final String DAMAGE_SOURCE_ITEM = "DamageSourceItem";
 
-    private static final HashSet<Integer> removeProjectiles = new HashSet<>();
-    private static final HashMap<Integer, Integer> rpgProjectiles = new HashMap<>();
-    private static final Map<UUID, ItemStack> localItemStacks = new HashMap<>();
-
-    private static RPGItem projectileRpgItem;
-    private static ItemStack projectileItemStack;
-    private static Player projectilePlayer;
-    private static final Map<UUID, UUID> projectileRegisterMap = new WeakHashMap<>();
     List<UUID> switchCooldown = new ArrayList<>();
 
     static private boolean canStack(ItemStack a, ItemStack b) {
@@ -83,43 +78,28 @@ public class Events implements Listener {
         }
     }
 
-    public static void registerLocalItemStack(UUID entityId, ItemStack item) {
-        localItemStacks.put(entityId, item);
-    }
-
-    public static boolean hasLocalItemStack(UUID entityId) {
-        return localItemStacks.containsKey(entityId);
-    }
-
-    public static ItemStack removeLocalItemStack(UUID entityId) {
-        return localItemStacks.remove(entityId);
-    }
-
-    public static ItemStack getLocalItemStack(UUID entityId) {
-        return localItemStacks.get(entityId);
-    }
-
+    /**
+     * @deprecated Launch the projectile within a {@link LaunchContext} frame instead
+     */
+    @Deprecated
     public static void registerRPGProjectile(RPGItem rpgItem, ItemStack itemStack, Player player, LivingEntity source) {
-        if (projectilePlayer != null) {
-            projectilePlayer = null;
-            throw new IllegalStateException();
-        }
-        Events.projectileRpgItem = rpgItem;
-        Events.projectileItemStack = itemStack;
-        Events.projectilePlayer = player;
-        projectileRegisterMap.put(source.getUniqueId(), player.getUniqueId());
+        LaunchContext.pushOnce(rpgItem, itemStack, player, source);
     }
 
+    /**
+     * @deprecated Launch the projectile within a {@link LaunchContext} frame instead
+     */
+    @Deprecated
     public static void registerRPGProjectile(RPGItem rpgItem, ItemStack itemStack, Player player) {
-        registerRPGProjectile(rpgItem, itemStack, player, player);
+        LaunchContext.pushOnce(rpgItem, itemStack, player, player);
     }
 
     public static void registerRPGProjectile(int entityId, int uid) {
-        rpgProjectiles.put(entityId, uid);
+        ProjectileRegistry.registerItem(entityId, uid);
     }
 
     public static void autoRemoveProjectile(int entityId) {
-        removeProjectiles.add(entityId);
+        ProjectileRegistry.autoRemove(entityId);
     }
 
     @EventHandler
@@ -179,21 +159,24 @@ public class Events implements Listener {
     @EventHandler
     public void onProjectileHit(ProjectileHitEvent e) {
         final Projectile entity = e.getEntity();
-        if (removeProjectiles.contains(entity.getEntityId())) {
+        final int entityId = entity.getEntityId();
+        ProjectileRegistry.Entry projectile = ProjectileRegistry.get(entityId);
+        if (projectile == null) return;
+        if (projectile.isAutoRemove()) {
             Bukkit.getScheduler().runTask(plugin, () -> {
                 if (e.getHitEntity() != null && e.getEntity() instanceof AbstractArrow && ((AbstractArrow) e.getEntity()).getPierceLevel() > 0) {
                     return;
                 }
-                removeProjectiles.remove(entity.getEntityId());
+                ProjectileRegistry.clearAutoRemove(entityId);
                 entity.remove();
             });
         }
-        if (rpgProjectiles.containsKey(entity.getEntityId())) {
+        if (projectile.hasItem()) {
             try {
                 if (entity instanceof Trident && entity.getScoreboardTags().contains("rgi_projectile")) {
                     ((Trident) entity).setPickupStatus(AbstractArrow.PickupStatus.DISALLOWED);
                 }
-                RPGItem rItem = ItemManager.getItem(rpgProjectiles.get(entity.getEntityId())).orElse(null);
+                RPGItem rItem = ItemManager.getItem(projectile.getUid()).orElse(null);
 
                 if (rItem == null || !(entity.getShooter() instanceof Player))
                     return;
@@ -202,13 +185,12 @@ public class Events implements Listener {
                     ItemStack item = player.getInventory().getItemInMainHand();
                     RPGItem hItem = ItemManager.toRPGItem(item).orElse(null);
 
-                    final UUID projectileUuid = entity.getUniqueId();
-                    if (hasLocalItemStack(projectileUuid)) {
-                        item = getLocalItemStack(projectileUuid);
+                    if (projectile.getStack() != null) {
+                        item = projectile.getStack();
                         new BukkitRunnable() {
                             @Override
                             public void run() {
-                                removeLocalItemStack(projectileUuid);
+                                ProjectileRegistry.removeStack(entityId);
                             }
                         }.runTaskLater(plugin, 1);
                         rItem = ItemManager.toRPGItem(item).orElse(null);
@@ -243,7 +225,7 @@ public class Events implements Listener {
                     if (e.getHitEntity() != null && e.getEntity() instanceof AbstractArrow && ((AbstractArrow) e.getEntity()).getPierceLevel() > 0) {
                         return;
                     }
-                    rpgProjectiles.remove(entity.getEntityId());
+                    ProjectileRegistry.unregisterItem(entityId);
                 });
             }
         }
@@ -279,36 +261,23 @@ public class Events implements Listener {
     public void onProjectileFire(ProjectileLaunchEvent e) {
         Projectile entity = e.getEntity();
         ProjectileSource shooter = entity.getShooter();
-        if (!(shooter instanceof Player) &&
-                !((shooter instanceof Entity) && projectileRegisterMap.containsKey(((Entity) shooter).getUniqueId()))
-        ) return;
-        OfflinePlayer ofp = (shooter instanceof Player) ? (Player) shooter : Bukkit.getOfflinePlayer(projectileRegisterMap.get(((LivingEntity) shooter).getUniqueId()));
-        if (!ofp.isOnline()) {
-            projectileRpgItem = null;
-            projectilePlayer = null;
-            projectileItemStack = null;
-            projectileRegisterMap.remove(((LivingEntity) shooter).getUniqueId());
-            e.setCancelled(true);
-            return;
-        }
-        Player player = ofp.getPlayer();
-        if (projectilePlayer != null) {
-            if (projectilePlayer != player) {
-                projectileRpgItem = null;
-                projectilePlayer = null;
-                projectileItemStack = null;
-                projectileRegisterMap.remove(((LivingEntity) shooter).getUniqueId());
-                throw new IllegalStateException();
+        LaunchContext launch = shooter instanceof Entity ? LaunchContext.current((Entity) shooter) : null;
+        if (launch != null) {
+            Player player = launch.getPlayer();
+            RPGItem launchItem = launch.getItem();
+            ItemStack launchStack = launch.getItemStack();
+            LaunchContext.consume(launch);
+            if (!player.isOnline()) {
+                e.setCancelled(true);
+                return;
             }
-            registerLocalItemStack(e.getEntity().getUniqueId(), projectileItemStack);
-            registerRPGProjectile(e.getEntity().getEntityId(), projectileRpgItem.getUid());
-            projectileRpgItem.power(player, projectileItemStack, e, BaseTriggers.LAUNCH_PROJECTILE);
-            projectileRpgItem = null;
-            projectilePlayer = null;
-            projectileItemStack = null;
-            projectileRegisterMap.remove(((LivingEntity) shooter).getUniqueId());
+            ProjectileRegistry.registerStack(entity.getEntityId(), launchStack);
+            registerRPGProjectile(entity.getEntityId(), launchItem.getUid());
+            launchItem.power(player, launchStack, e, BaseTriggers.LAUNCH_PROJECTILE);
             return;
         }
+        if (!(shooter instanceof Player)) return;
+        Player player = (Player) shooter;
 
         ItemStack itemInMainHand = player.getInventory().getItemInMainHand();
         ItemStack itemInOffHand = player.getInventory().getItemInOffHand();
@@ -319,7 +288,7 @@ public class Events implements Listener {
             rItem = ItemManager.toRPGItem(item).orElse(null);
             if (rItem == null) return;
             UUID uuid = entity.getUniqueId();
-            registerLocalItemStack(uuid, item);
+            ProjectileRegistry.registerStack(entity.getEntityId(), item);
             ItemStack fakeItem = rItem.toItemStack();
             List<String> fakeLore = new ArrayList<>(1);
             fakeLore.add(uuid.toString());
@@ -589,12 +558,14 @@ public class Events implements Listener {
         }
         ItemStack tridentItem = e.getItem().getItemStack();
         ItemMeta itemMeta = tridentItem.getItemMeta();
-        if (!rpgProjectiles.containsKey(e.getArrow().getEntityId()) || !itemMeta.hasLore() || itemMeta.getLore().isEmpty()) {
+        ProjectileRegistry.Entry projectile = ProjectileRegistry.get(e.getArrow().getEntityId());
+        if (projectile == null || !projectile.hasItem() || !itemMeta.hasLore() || itemMeta.getLore().isEmpty()) {
             return;
         }
         try {
             UUID uuid = UUID.fromString(itemMeta.getLore().get(0));
-            ItemStack realItem = removeLocalItemStack(uuid);
+            // the fake trident item is tagged with the uuid of the trident it was thrown as
+            ItemStack realItem = uuid.equals(e.getArrow().getUniqueId()) ? ProjectileRegistry.removeStack(e.getArrow().getEntityId()) : null;
             if (realItem != null) {
                 if (realItem.getType() == Material.AIR) {
                     e.getArrow().setPickupStatus(Arrow.PickupStatus.DISALLOWED);
@@ -744,32 +715,26 @@ public class Events implements Listener {
         if (e.getCause() == EntityDamageEvent.DamageCause.THORNS)
             return;
 
-        Optional<Boolean> suppressMelee = LightContext.getTemp(player.getUniqueId(), SUPPRESS_MELEE);
-        Optional<Double> overridingDamage = LightContext.getTemp(player.getUniqueId(), OVERRIDING_DAMAGE);
-        Optional<ItemStack> sourceItem = LightContext.getTemp(player.getUniqueId(), DAMAGE_SOURCE_ITEM);
-
-        if (!overridingDamage.isPresent()) {
+        DamageFrame frame = DamageFrame.current(player);
+        Optional<Double> overridingDamage;
+        if (frame != null && frame.hasOverridingDamage()) {
+            overridingDamage = Optional.of(frame.getOverridingDamage());
+        } else {
             overridingDamage = Optional.ofNullable(Context.instance().getDouble(player.getUniqueId(), OVERRIDING_DAMAGE));
         }
 
-        if (sourceItem.isPresent()) {
-            item = sourceItem.get();
+        if (frame != null && frame.getItem() != null) {
+            item = frame.getItem();
         } else {
-            sourceItem = Optional.ofNullable((ItemStack) Context.instance().get(player.getUniqueId(), DAMAGE_SOURCE_ITEM));
-            if (sourceItem.isPresent()) {
-                item = sourceItem.get();
+            ItemStack sourceItem = (ItemStack) Context.instance().get(player.getUniqueId(), DAMAGE_SOURCE_ITEM);
+            if (sourceItem != null) {
+                item = sourceItem;
             }
         }
 
-        if (suppressMelee.isPresent() && suppressMelee.get()) {
+        if ((frame != null && frame.isSuppressMelee()) || Boolean.TRUE.equals(Context.instance().getBoolean(player.getUniqueId(), SUPPRESS_MELEE))) {
             overridingDamage.ifPresent(e::setDamage);
             return;
-        } else {
-            suppressMelee = Optional.ofNullable(Context.instance().getBoolean(player.getUniqueId(), SUPPRESS_MELEE));
-            if (suppressMelee.isPresent() && suppressMelee.get()) {
-                overridingDamage.ifPresent(e::setDamage);
-                return;
-            }
         }
 
         RPGItem rItem = ItemManager.toRPGItem(item).orElse(null);
@@ -799,21 +764,20 @@ public class Events implements Listener {
             Context.instance().putTemp(player.getUniqueId(), DAMAGE_TYPE, damageType);
             damage = rItem.power(player, item, e, BaseTriggers.HIT).orElse(damage);
         }
-        ItemStack[] inventory = player.getInventory().getContents();
-        runGlobalHitTrigger(e, player, damage, rItem == null ? "" : rItem.getDamageType(), inventory);
+        runGlobalHitTrigger(e, player, damage, rItem == null ? "" : rItem.getDamageType());
     }
 
     private void projectileDamager(EntityDamageByEntityEvent e) {
         Projectile projectile = (Projectile) e.getDamager();
-        Integer projectileID = rpgProjectiles.get(projectile.getEntityId());
-        if (projectileID == null) {
+        ProjectileRegistry.Entry registered = ProjectileRegistry.get(projectile.getEntityId());
+        if (registered == null || !registered.hasItem()) {
             if (projectile.hasMetadata("RPGItems.OriginalForce")) {
                 double damage = e.getDamage() * projectile.getMetadata("RPGItems.Force").get(0).asFloat() / projectile.getMetadata("RPGItems.OriginalForce").get(0).asFloat();
                 e.setDamage(damage);
             }
             return;
         }
-        RPGItem rItem = ItemManager.getItem(projectileID).orElse(null);
+        RPGItem rItem = ItemManager.getItem(registered.getUid()).orElse(null);
         if (rItem == null || !(projectile.getShooter() instanceof Player))
             return;
         if (!((Player) projectile.getShooter()).isOnline()) {
@@ -823,8 +787,8 @@ public class Events implements Listener {
         ItemStack item = player.getInventory().getItemInMainHand();
         RPGItem hItem = ItemManager.toRPGItem(item).orElse(null);
 
-        if (hasLocalItemStack(projectile.getUniqueId())) {
-            item = getLocalItemStack(projectile.getUniqueId());
+        if (registered.getStack() != null) {
+            item = registered.getStack();
             rItem = ItemManager.toRPGItem(item).orElse(null);
             if (rItem == null) throw new IllegalStateException();
         } else {
@@ -860,16 +824,17 @@ public class Events implements Listener {
         }
         e.setDamage(damage);
         if (!(e.getEntity() instanceof LivingEntity)) return;
-        ItemStack[] armorContents = player.getInventory().getContents();
         String damageType = rItem.getDamageType();
         Context.instance().putTemp(player.getUniqueId(), DAMAGE_TYPE, damageType);
         damage = rItem.power(player, item, e, BaseTriggers.HIT).orElse(damage);
-        runGlobalHitTrigger(e, player, damage, damageType, armorContents);
+        runGlobalHitTrigger(e, player, damage, damageType);
     }
 
-    private void runGlobalHitTrigger(EntityDamageByEntityEvent e, Player player, double damage, String damageType, ItemStack[] itemStacks) {
-        ItemStack itemInMainHand = player.getInventory().getItemInMainHand();
-        for (ItemStack itemStack : itemStacks) {
+    private void runGlobalHitTrigger(EntityDamageByEntityEvent e, Player player, double damage, String damageType) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack itemInMainHand = inventory.getItemInMainHand();
+        for (int slot : TriggerSlotIndex.of(player).getSlots(player, BaseTriggers.HIT_GLOBAL)) {
+            ItemStack itemStack = inventory.getItem(slot);
             if (itemStack == null) continue;
             if (itemStack.equals(itemInMainHand)) continue;
             RPGItem rpgItem = ItemManager.toRPGItem(itemStack).orElse(null);
@@ -888,34 +853,11 @@ public class Events implements Listener {
     public void onPlayerHit(EntityDamageEvent e) {
         if (e.getEntity() instanceof Player) {
             Player player = (Player) e.getEntity();
-            ItemStack[] armour = player.getInventory().getArmorContents();
-            boolean hasRPGItem = false;
-            double damage = e.getDamage();
             Entity damager = null;
             if (e instanceof EntityDamageByEntityEvent) {
                 damager = ((EntityDamageByEntityEvent) e).getDamager();
             }
-            for (ItemStack pArmour : armour) {
-                RPGItem pRItem = ItemManager.toRPGItem(pArmour).orElse(null);
-                if (pRItem == null) {
-                    continue;
-                }
-                hasRPGItem = true;
-                damage = pRItem.takeDamage(player, damage, pArmour, damager);
-            }
-            for (ItemStack pArmour : armour) {
-                try {
-                    RPGItem pRItem = ItemManager.toRPGItem(pArmour).orElse(null);
-                    if (pRItem == null) {
-                        continue;
-                    }
-                    damage = Utils.eval(player, damage, e, damager, pRItem);
-                } catch (Exception ignored) {
-                }
-            }
-            if (hasRPGItem) {
-                player.getInventory().setArmorContents(armour);
-            }
+            double damage = ArmourPipeline.apply(player, e, damager, e.getDamage());
             e.setDamage(damage);
         }
     }
@@ -933,8 +875,9 @@ public class Events implements Listener {
     }
 
     private void triggerRescue(Player entity, EntityDamageEvent ev) {
-        double ret = ev.getDamage();
-        for (ItemStack item : entity.getInventory().getContents()) {
+        PlayerInventory inventory = entity.getInventory();
+        for (int slot : TriggerSlotIndex.of(entity).getSlots(entity, BaseTriggers.DYING)) {
+            ItemStack item = inventory.getItem(slot);
             RPGItem ri = ItemManager.toRPGItem(item).orElse(null);
             if (ri == null) continue;
             ri.power(entity, item, ev, BaseTriggers.DYING);
@@ -943,7 +886,9 @@ public class Events implements Listener {
 
     private double playerHitTaken(Player e, EntityDamageEvent ev) {
         double ret = ev.getDamage();
-        for (ItemStack item : e.getInventory().getContents()) {
+        PlayerInventory inventory = e.getInventory();
+        for (int slot : TriggerSlotIndex.of(e).getSlots(e, BaseTriggers.HIT_TAKEN)) {
+            ItemStack item = inventory.getItem(slot);
             RPGItem ri = ItemManager.toRPGItem(item).orElse(null);
             if (ri == null) continue;
             ret = ri.power(e, item, ev, BaseTriggers.HIT_TAKEN).orElse(ret);
@@ -955,7 +900,9 @@ public class Events implements Listener {
     private void onPlayerHurt(EntityDamageByEntityEvent ev) {
         if (ev.getEntity() instanceof Player) {
             Player e = (Player) ev.getEntity();
-            for (ItemStack item : e.getInventory().getContents()) {
+            PlayerInventory inventory = e.getInventory();
+            for (int slot : TriggerSlotIndex.of(e).getSlots(e, BaseTriggers.HURT)) {
+                ItemStack item = inventory.getItem(slot);
                 RPGItem ri = ItemManager.toRPGItem(item).orElse(null);
                 if (ri == null) continue;
                 ri.power(e, item, ev, BaseTriggers.HURT);
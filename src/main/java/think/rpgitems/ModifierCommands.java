@@ -4,6 +4,7 @@ import cat.nyaa.nyaacore.Pair;
 import cat.nyaa.nyaacore.cmdreceiver.Arguments;
 import cat.nyaa.nyaacore.cmdreceiver.BadCommandException;
 import cat.nyaa.nyaacore.cmdreceiver.SubCommand;
+import com.google.common.cache.CacheStats;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.NamespacedKey;
@@ -20,6 +21,7 @@ import think.rpgitems.power.PowerManager;
 import think.rpgitems.power.RPGCommandReceiver;
 import think.rpgitems.power.UnknownExtensionException;
 import think.rpgitems.power.propertymodifier.Modifier;
+import think.rpgitems.power.propertymodifier.ModifierChain;
 import think.rpgitems.utils.ItemTagUtils;
 import think.rpgitems.utils.ItemTagUtils.*;
 
@@ -299,4 +301,10 @@ public class ModifierCommands extends RPGCommandReceiver {
                 });
         sender.sendMessage(ChatColor.AQUA + "Modifiers: " + page + " / " + max);
     }
+
+    @SubCommand("stats")
+    public void stats(CommandSender sender, Arguments args) {
+        CacheStats stats = ModifierChain.stats();
+        I18n.sendMessage(sender, "message.modifier.stats", ModifierChain.size(), stats.hitCount(), stats.missCount(), String.format("%.2f", stats.hitRate() * 100), stats.evictionCount());
+    }
 }
@@ -322,6 +322,7 @@ public class PowerCommands extends RPGCommandReceiver {
         }
         Power remove = item.getPowers().remove(origin);
         item.getPowers().add(next, remove);
+        item.rebuild();
         ItemManager.refreshItem();
         ItemManager.save(item);
         msg(sender, "message.power.reorder", remove.getName(), next);
@@ -14,12 +14,19 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.plugin.java.JavaPluginLoader;
+import think.rpgitems.data.Context;
 import think.rpgitems.data.Font;
+import think.rpgitems.data.ProjectileRegistry;
+import think.rpgitems.data.SessionManager;
+import think.rpgitems.data.SessionManager.Scope;
 import think.rpgitems.item.ItemManager;
 import think.rpgitems.power.*;
+import think.rpgitems.power.cond.SlotCondition;
+import think.rpgitems.power.propertymodifier.ModifierChain;
 import think.rpgitems.power.trigger.BaseTriggers;
 import think.rpgitems.power.trigger.Trigger;
 import think.rpgitems.support.WGSupport;
+import think.rpgitems.utils.LightContext;
 
 import java.io.File;
 import java.lang.reflect.InvocationHandler;
@@ -219,6 +226,21 @@ public class RPGItems extends JavaPlugin {
         managedPlugins.forEach(Bukkit.getPluginManager()::disablePlugin);
     }
 
+    private void registerSessionStores() {
+        SessionManager sessions = SessionManager.instance();
+        sessions.register("context", Scope.ENTITY, Context.instance()::release, Context.instance()::size, 150);
+        sessions.register("light_context", Scope.ENTITY, LightContext::release, LightContext::size, 90);
+        sessions.register("worldguard", Scope.PLAYER, WGSupport::release, WGSupport::size, 200);
+        sessions.register("slot_condition", Scope.PLAYER, SlotCondition::release, SlotCondition::size, 250);
+        sessions.register("equipment", Scope.PLAYER, EquipmentSnapshot::remove, EquipmentSnapshot::size, 160);
+        sessions.register("trigger_slots", Scope.PLAYER, TriggerSlotIndex::remove, TriggerSlotIndex::size, 400);
+        sessions.register("tick_scheduler", Scope.PLAYER, TickScheduler.instance()::remove, TickScheduler.instance()::size, 56);
+        sessions.register("cooldown", Scope.PLAYER, CooldownRegistry.instance()::release, CooldownRegistry.instance()::size, 200);
+        sessions.register("modifier_chain", Scope.PLAYER, ModifierChain::release, () -> (int) ModifierChain.size(), 300);
+        // keyed by entity id, released by its own listener when the projectile leaves its world
+        sessions.registerReport("projectile", ProjectileRegistry::size, 80);
+    }
+
     private class ServerLoadListener implements Listener {
         @EventHandler
         public void onServerLoad(ServerLoadEvent event) {
@@ -228,6 +250,10 @@ public class RPGItems extends JavaPlugin {
             logger.info("Loading RPGItems...");
             ItemManager.load(RPGItems.this);
             logger.info("Done");
+            registerSessionStores();
+            getServer().getPluginManager().registerEvents(new SessionManager.EventListener(), RPGItems.this);
+            getServer().getPluginManager().registerEvents(new EquipmentSnapshot.EventListener(), RPGItems.this);
+            getServer().getPluginManager().registerEvents(new ProjectileRegistry.EventListener(), RPGItems.this);
             new Ticker().runTaskTimer(RPGItems.this, 0, 0);
         }
     }
@@ -170,7 +170,7 @@ public class TriggerCommands extends RPGCommandReceiver {
             I18n.sendMessage(sender, "message.trigger.unknown", name);
             return;
         }
-        item.getTriggers().remove(name);
+        item.removeTrigger(name);
         I18n.sendMessage(sender, "message.trigger.removed");
     }
 
@@ -1,8 +1,11 @@
 package think.rpgitems.api;
 
+import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import think.rpgitems.item.ItemManager;
 import think.rpgitems.item.RPGItem;
+import think.rpgitems.power.CooldownRegistry;
+import think.rpgitems.power.Power;
 
 import java.util.Objects;
 
@@ -23,4 +26,15 @@ public class RPGItems {
     public boolean isEqual(ItemStack a, ItemStack b) {
         return Objects.equals(parseItemInfo(a), parseItemInfo(b));
     }
+
+    /**
+     * Gets the ticks left until a power of an item can be used again by a player.
+     *
+     * @param player The player
+     * @param power  The power, from {@link RPGItem#getPowers()}
+     * @return Remaining ticks, 0 if the power is not cooling down
+     */
+    public long getRemainingCooldown(Player player, Power power) {
+        return (CooldownRegistry.instance().getRemainingMillis(player, power) + 49) / 50;
+    }
 }
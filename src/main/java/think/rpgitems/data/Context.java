@@ -1,6 +1,5 @@
 package think.rpgitems.data;
 
-import cat.nyaa.nyaacore.Pair;
 import org.bukkit.Location;
 import org.bukkit.entity.LivingEntity;
 
@@ -12,7 +11,13 @@ import java.util.stream.Collectors;
 
 public class Context {
     private static final Context instance = new Context();
+    /**
+     * Most expired entries reaped by a single {@link #cleanTick()}, the rest are left for later ticks or dropped on access
+     */
+    private static final int REAP_BATCH = 1024;
     private final HashMap<UUID, ExpiringMap<String, Object>> storage = new HashMap<>();
+    private final PriorityQueue<Expiry> expiries = new PriorityQueue<>(Comparator.comparingLong(expiry -> expiry.expireAt));
+    private final Set<ExpiringMap<?, ?>> ticking = Collections.newSetFromMap(new IdentityHashMap<>());
 
     public static Context instance() {
         return instance;
@@ -80,7 +85,9 @@ public class Context {
     }
 
     public void removeTemp(UUID context, String key) {
-        storage.computeIfAbsent(context, uuid -> new ExpiringMap<>()).remove(key);
+        ExpiringMap<String, Object> local = storage.get(context);
+        if (local == null) return;
+        local.remove(key);
     }
 
     public void put(UUID context, String key, Object obj, long expire) {
@@ -97,18 +104,96 @@ public class Context {
         local.cleanupTemp();
     }
 
-    public void cleanTick() {
+    public void release(UUID context) {
+        ExpiringMap<String, Object> local = storage.remove(context);
+        if (local != null) {
+            local.clear();
+        }
+    }
+
+    /**
+     * @return Number of entries in all contexts, including expired ones not reaped yet
+     */
+    public int size() {
+        int size = 0;
         for (ExpiringMap<String, Object> local : storage.values()) {
-            local.cleanup(null, null, ExpiringMap.TICK);
+            size += local.inner.size();
+        }
+        return size;
+    }
+
+    /**
+     * Drops the entries put for the current tick and reaps a bounded batch of entries that expired since
+     */
+    public void cleanTick() {
+        for (ExpiringMap<?, ?> local : ticking) {
+            local.cleanupTick();
+        }
+        ticking.clear();
+        long currentMillis = getCurrentMillis();
+        for (int i = 0; i < REAP_BATCH; i++) {
+            Expiry expiry = expiries.peek();
+            if (expiry == null || expiry.expireAt >= currentMillis) break;
+            expiries.poll();
+            if (expiry.map != null) {
+                expiry.map.expire(expiry.key, expiry.node);
+            }
+        }
+    }
+
+    private static final class Node<V> {
+        private final V value;
+        private final long expireAt;
+        private Expiry expiry;
+
+        private Node(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        /**
+         * Lets go of the queued expiry of a node no longer in its map, so the queue does not keep it reachable
+         */
+        private void detach() {
+            if (expiry != null) {
+                expiry.map = null;
+                expiry.key = null;
+                expiry.node = null;
+                expiry = null;
+            }
+        }
+    }
+
+    /**
+     * Queued expiry of a node, left in the queue with its references cleared once the node is removed otherwise
+     */
+    private static final class Expiry {
+        private final long expireAt;
+        private ExpiringMap<?, ?> map;
+        private Object key;
+        private Node<?> node;
+
+        private Expiry(long expireAt, ExpiringMap<?, ?> map, Object key, Node<?> node) {
+            this.expireAt = expireAt;
+            this.map = map;
+            this.key = key;
+            this.node = node;
         }
     }
 
+    /**
+     * Map whose entries are looked up in constant time and expire once they are older than the alive age.
+     * <p>
+     * Expiry is checked on access, while expired entries nobody reads again are reaped from a shared queue by {@link #cleanTick()}.
+     * Entries put with {@link #putTemp} live until {@link #cleanupTemp()}, and those put for a tick until the next {@link #cleanTick()}.
+     */
     public class ExpiringMap<K, V> implements Map<K, V> {
         private static final long TEMP = Long.MAX_VALUE;
         private static final long TICK = Long.MAX_VALUE - 1;
         private final int aliveAge;
-        private final HashMap<K, Long> birth = new HashMap<>();
-        private final HashMap<K, V> inner;
+        private final HashMap<K, Node<V>> inner;
+        private final Set<K> tempKeys = new HashSet<>();
+        private final Set<K> tickKeys = new HashSet<>();
 
         public ExpiringMap() {
             this(0);
@@ -124,50 +209,85 @@ public class Context {
             this.aliveAge = aliveAge;
         }
 
-        private void rec(K i, long birth) {
-            this.birth.put(i, birth);
-            this.cleanup();
+        private boolean isExpired(Node<V> node, long currentMillis) {
+            return node.expireAt != TEMP && node.expireAt != TICK && currentMillis > node.expireAt;
         }
 
-        private void rec(K key) {
-            long currentMillis = getCurrentMillis();
-            rec(key, currentMillis);
+        private V rec(K key, V value, long birth) {
+            long expireAt = birth;
+            if (birth == TEMP) {
+                tempKeys.add(key);
+            } else if (birth == TICK) {
+                tickKeys.add(key);
+                ticking.add(this);
+            } else {
+                expireAt = birth + aliveAge;
+            }
+            Node<V> node = new Node<>(value, expireAt);
+            if (birth != TEMP && birth != TICK) {
+                node.expiry = new Expiry(expireAt, this, key, node);
+                expiries.add(node.expiry);
+            }
+            return valueOf(drop(inner.put(key, node)), getCurrentMillis());
         }
 
-        public void cleanup() {
-            cleanup(null, null, null);
+        private V valueOf(Node<V> node, long currentMillis) {
+            return node == null || isExpired(node, currentMillis) ? null : node.value;
         }
 
-        public void cleanupTemp() {
-            cleanup(null, null, TEMP);
+        @Nullable
+        private Node<V> drop(@Nullable Node<V> removed) {
+            if (removed != null) {
+                removed.detach();
+            }
+            return removed;
         }
 
         @Nullable
-        public Pair<K, V> cleanup(Object findKey, Object findValue, Long removing) {
+        private Node<V> find(Object key) {
+            Node<V> node = inner.get(key);
+            if (node != null && isExpired(node, getCurrentMillis())) {
+                drop(inner.remove(key));
+                return null;
+            }
+            return node;
+        }
+
+        @SuppressWarnings("SuspiciousMethodCalls")
+        private void expire(Object key, Node<?> node) {
+            if (inner.get(key) == node) {
+                drop(inner.remove(key));
+            }
+        }
+
+        /**
+         * Removes every expired entry, visiting the whole map
+         */
+        public void cleanup() {
             long currentMillis = getCurrentMillis();
-            Iterator<Map.Entry<K, Long>> expireIter = this.birth.entrySet().iterator();
-
-            while (expireIter.hasNext()) {
-                Map.Entry<K, Long> entry = expireIter.next();
-                K key = entry.getKey();
-                V value = inner.get(key);
-                Long birth = entry.getValue();
-
-                if ((currentMillis - birth <= (long) this.aliveAge)
-                        && !Objects.equals(birth, removing)) {
-                    if (Objects.equals(findKey, key)) {
-                        return Pair.of(key, value);
-                    }
-                    if (value != null && Objects.equals(findValue, value)) {
-                        return Pair.of(key, value);
-                    }
-                    continue;
-                }
+            inner.values().removeIf(node -> {
+                if (!isExpired(node, currentMillis)) return false;
+                node.detach();
+                return true;
+            });
+        }
+
+        public void cleanupTemp() {
+            cleanup(tempKeys, TEMP);
+        }
+
+        private void cleanupTick() {
+            cleanup(tickKeys, TICK);
+        }
 
-                inner.remove(key);
-                expireIter.remove();
+        private void cleanup(Set<K> keys, long removing) {
+            for (K key : keys) {
+                Node<V> node = inner.get(key);
+                if (node != null && node.expireAt == removing) {
+                    inner.remove(key);
+                }
             }
-            return null;
+            keys.clear();
         }
 
         @Override
@@ -184,85 +304,90 @@ public class Context {
 
         @Override
         public boolean containsKey(Object key) {
-            return this.cleanup(key, null, null) == null;
+            return find(key) != null;
         }
 
         @Override
         public boolean containsValue(Object value) {
-            return this.cleanup(null, value, null) == null;
+            this.cleanup();
+            for (Node<V> node : inner.values()) {
+                if (Objects.equals(node.value, value)) return true;
+            }
+            return false;
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public V get(Object key) {
-            Pair<K, V> cleanup = this.cleanup(key, null, null);
-            if (cleanup == null) {
-                return null;
-            }
-            return cleanup.getValue();
+            Node<V> node = find(key);
+            return node == null ? null : node.value;
         }
 
         @Override
         public V put(K i, V value) {
-            this.rec(i);
-            return inner.put(i, value);
+            return rec(i, value, getCurrentMillis());
         }
 
         public V put(K i, V value, long birth) {
-            this.rec(i, birth);
-            return inner.put(i, value);
+            return rec(i, value, birth);
         }
 
         public V putTemp(K i, V value) {
-            this.rec(i, TEMP);
-            return inner.put(i, value);
+            return rec(i, value, TEMP);
         }
 
         @Override
         public V remove(Object key) {
-            birth.remove(key);
-            return inner.remove(key);
+            return valueOf(drop(inner.remove(key)), getCurrentMillis());
         }
 
         @Override
         public void putAll(@Nonnull Map<? extends K, ? extends V> map) {
             long currentMillis = getCurrentMillis();
-            birth.putAll(map.keySet().stream().collect(Collectors.toMap(e -> e, e -> currentMillis)));
-            inner.putAll(map);
-            cleanup();
+            map.forEach((key, value) -> rec(key, value, currentMillis));
         }
 
         @Override
         public void clear() {
-            birth.clear();
+            inner.values().forEach(Node::detach);
             inner.clear();
+            tempKeys.clear();
+            tickKeys.clear();
         }
 
         @Override
         @Nonnull
         public Set<K> keySet() {
             cleanup();
-            return birth.keySet();
+            return inner.keySet();
         }
 
         @Override
         public V computeIfAbsent(K key, Function<? super K, ? extends V> value) {
-            this.birth.put(key, getCurrentMillis());
-            return inner.computeIfAbsent(key, value);
+            Node<V> node = find(key);
+            if (node != null) {
+                return node.value;
+            }
+            V computed = value.apply(key);
+            if (computed != null) {
+                rec(key, computed, getCurrentMillis());
+            }
+            return computed;
         }
 
         @Override
         @Nonnull
         public Collection<V> values() {
             this.cleanup();
-            return inner.values();
+            return Collections.unmodifiableCollection(inner.values().stream().map(node -> node.value).collect(Collectors.toList()));
         }
 
         @Override
         @Nonnull
         public Set<Entry<K, V>> entrySet() {
             this.cleanup();
-            return inner.entrySet();
+            Set<Entry<K, V>> entries = new LinkedHashSet<>();
+            inner.forEach((key, node) -> entries.add(new AbstractMap.SimpleImmutableEntry<>(key, node.value)));
+            return Collections.unmodifiableSet(entries);
         }
     }
 
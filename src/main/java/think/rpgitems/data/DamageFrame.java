@@ -0,0 +1,113 @@
+package think.rpgitems.data;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Attribution of damage dealt by a power, read by {@link think.rpgitems.Events} while the damage event is handled.
+ * <p>
+ * Frames are pushed right before {@link LivingEntity#damage(double, Entity)} and popped right after, so damage dealt
+ * from within another damage event gets its own frame. Frame objects are reused and must not be kept after popping.
+ * <p>
+ * Extensions handling the damage event find the power dealing it with {@code DamageFrame.current(damager).getSource()}.
+ */
+public final class DamageFrame {
+    private static DamageFrame[] stack = new DamageFrame[8];
+    private static int depth;
+
+    static {
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = new DamageFrame();
+        }
+    }
+
+    private Entity damager;
+    private String source;
+    private double damage;
+    private boolean suppressMelee;
+    private ItemStack item;
+
+    private DamageFrame() {
+    }
+
+    /**
+     * @param source        Namespaced key of the power dealing the damage
+     * @param damage        Damage overriding the one of the event, {@link Double#NaN} to keep it
+     * @param suppressMelee Whether to skip melee damage calculation and HIT triggers of the damager's item
+     * @param item          Item stack dealing the damage, null for the damager's main hand
+     */
+    public static void push(Entity damager, String source, double damage, boolean suppressMelee, @Nullable ItemStack item) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+            for (int i = depth; i < stack.length; i++) {
+                stack[i] = new DamageFrame();
+            }
+        }
+        DamageFrame frame = stack[depth++];
+        frame.damager = damager;
+        frame.source = source;
+        frame.damage = damage;
+        frame.suppressMelee = suppressMelee;
+        frame.item = item;
+    }
+
+    public static void pop() {
+        DamageFrame frame = stack[--depth];
+        frame.damager = null;
+        frame.source = null;
+        frame.item = null;
+    }
+
+    /**
+     * Deals damage within a frame
+     */
+    public static void damage(LivingEntity entity, Entity damager, String source, double damage, boolean suppressMelee, @Nullable ItemStack item) {
+        push(damager, source, damage, suppressMelee, item);
+        try {
+            entity.damage(damage, damager);
+        } finally {
+            pop();
+        }
+    }
+
+    /**
+     * @return Innermost frame of damage dealt by the damager, or null if it is not dealing damage from a power
+     */
+    @Nullable
+    public static DamageFrame current(Entity damager) {
+        for (int i = depth - 1; i >= 0; i--) {
+            if (stack[i].damager.equals(damager)) {
+                return stack[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Namespaced key of the power dealing the damage
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public boolean hasOverridingDamage() {
+        return !Double.isNaN(damage);
+    }
+
+    public double getOverridingDamage() {
+        return damage;
+    }
+
+    public boolean isSuppressMelee() {
+        return suppressMelee;
+    }
+
+    @Nullable
+    public ItemStack getItem() {
+        return item;
+    }
+}
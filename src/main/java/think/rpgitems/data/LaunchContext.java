@@ -0,0 +1,145 @@
+package think.rpgitems.data;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.Vector;
+import think.rpgitems.item.RPGItem;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Projectiles being launched by an RPG item, read by {@link think.rpgitems.Events} when they are launched.
+ * <p>
+ * A frame is pushed before launching and popped after, and every projectile launched in between by the player or one
+ * of the frame's sources is registered as launched by the item, so a volley needs a single frame. Launches from powers
+ * triggered by these projectiles push frames of their own, the innermost frame matching the shooter wins.
+ * Frame objects are reused and must not be kept after popping.
+ * <p>
+ * Callers registering a launch before making it, outside of any frame, get a pending frame claiming only the next
+ * projectile it matches, see {@link #pushOnce}.
+ */
+public final class LaunchContext {
+    private static LaunchContext[] stack = new LaunchContext[4];
+    private static int depth;
+    private static final LaunchContext pending = new LaunchContext();
+
+    static {
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = new LaunchContext();
+        }
+    }
+
+    private final List<Entity> sources = new ArrayList<>(1);
+    private RPGItem item;
+    private ItemStack itemStack;
+    private Player player;
+
+    private LaunchContext() {
+    }
+
+    public static void push(RPGItem item, ItemStack itemStack, Player player) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+            for (int i = depth; i < stack.length; i++) {
+                stack[i] = new LaunchContext();
+            }
+        }
+        LaunchContext frame = stack[depth++];
+        frame.item = item;
+        frame.itemStack = itemStack;
+        frame.player = player;
+    }
+
+    /**
+     * Lets the innermost frame also claim projectiles launched by an entity other than its player
+     */
+    public static void addSource(Entity source) {
+        stack[depth - 1].sources.add(source);
+    }
+
+    public static void pop() {
+        stack[--depth].reset();
+    }
+
+    /**
+     * Opens a pending frame consumed by the next projectile launched by the player or the source,
+     * replacing any pending frame not consumed yet
+     */
+    public static void pushOnce(RPGItem item, ItemStack itemStack, Player player, Entity source) {
+        pending.reset();
+        pending.item = item;
+        pending.itemStack = itemStack;
+        pending.player = player;
+        if (!source.equals(player)) {
+            pending.sources.add(source);
+        }
+    }
+
+    /**
+     * Closes the frame if it is the pending one, called once a projectile has been claimed by it
+     */
+    public static void consume(LaunchContext frame) {
+        if (frame == pending) {
+            pending.reset();
+        }
+    }
+
+    /**
+     * Launches a single projectile from the player within a frame
+     *
+     * @param velocity Velocity of the projectile, null for the default one
+     */
+    public static <T extends Projectile> T launch(RPGItem item, ItemStack itemStack, Player player, Class<? extends T> type, @Nullable Vector velocity) {
+        push(item, itemStack, player);
+        try {
+            return velocity == null ? player.launchProjectile(type) : player.launchProjectile(type, velocity);
+        } finally {
+            pop();
+        }
+    }
+
+    public static <T extends Projectile> T launch(RPGItem item, ItemStack itemStack, Player player, Class<? extends T> type) {
+        return launch(item, itemStack, player, type, null);
+    }
+
+    /**
+     * @return Innermost frame launching projectiles shot by the entity, or null if it is not launching any for an item
+     */
+    @Nullable
+    public static LaunchContext current(Entity shooter) {
+        if (pending.player != null && (pending.player.equals(shooter) || pending.sources.contains(shooter))) {
+            return pending;
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            LaunchContext frame = stack[i];
+            if (frame.player.equals(shooter) || frame.sources.contains(shooter)) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private void reset() {
+        item = null;
+        itemStack = null;
+        player = null;
+        sources.clear();
+    }
+
+    public RPGItem getItem() {
+        return item;
+    }
+
+    public ItemStack getItemStack() {
+        return itemStack;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+}
@@ -0,0 +1,205 @@
+package think.rpgitems.data;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nullable;
+
+/**
+ * Projectiles launched by RPG items, keyed by entity id.
+ * <p>
+ * An entry holds the item uid, launch stack and flags {@link think.rpgitems.Events} needs about a projectile,
+ * so handling a hit or its damage takes a single lookup. Entries are dropped once they hold nothing, or when their projectile is removed from its world
+ * or unloaded with its chunk. Entity ids are never 0, which marks a free slot.
+ */
+public final class ProjectileRegistry {
+    private static final int MIN_CAPACITY = 64;
+
+    private static int[] keys = new int[MIN_CAPACITY];
+    private static Entry[] values = new Entry[MIN_CAPACITY];
+    private static int size;
+
+    private ProjectileRegistry() {
+    }
+
+    @Nullable
+    public static Entry get(int entityId) {
+        int mask = keys.length - 1;
+        for (int i = mix(entityId) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == entityId) return values[i];
+        }
+        return null;
+    }
+
+    /**
+     * Marks the projectile as launched by the item, firing its projectile triggers
+     */
+    public static void registerItem(int entityId, int uid) {
+        getOrCreate(entityId).uid = uid;
+    }
+
+    /**
+     * Stack the projectile was launched with, used instead of the one in the shooter's main hand
+     */
+    public static void registerStack(int entityId, ItemStack stack) {
+        getOrCreate(entityId).stack = stack;
+    }
+
+    /**
+     * Removes the projectile once it hits something
+     */
+    public static void autoRemove(int entityId) {
+        getOrCreate(entityId).autoRemove = true;
+    }
+
+    public static void unregisterItem(int entityId) {
+        Entry entry = get(entityId);
+        if (entry == null) return;
+        entry.uid = -1;
+        prune(entry);
+    }
+
+    @Nullable
+    public static ItemStack removeStack(int entityId) {
+        Entry entry = get(entityId);
+        if (entry == null) return null;
+        ItemStack stack = entry.stack;
+        entry.stack = null;
+        prune(entry);
+        return stack;
+    }
+
+    public static void clearAutoRemove(int entityId) {
+        Entry entry = get(entityId);
+        if (entry == null) return;
+        entry.autoRemove = false;
+        prune(entry);
+    }
+
+    public static void remove(int entityId) {
+        if (entityId == 0) return;
+        int mask = keys.length - 1;
+        int i = mix(entityId) & mask;
+        while (keys[i] != entityId) {
+            if (keys[i] == 0) return;
+            i = (i + 1) & mask;
+        }
+        // shift back following entries of the probe run into the freed slot
+        for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+        values[i] = null;
+        size--;
+        if (size < keys.length / 8 && keys.length > MIN_CAPACITY) {
+            rehash(keys.length / 2);
+        }
+    }
+
+    public static int size() {
+        return size;
+    }
+
+    private static Entry getOrCreate(int entityId) {
+        if (entityId == 0) throw new IllegalArgumentException("entity id 0");
+        Entry entry = get(entityId);
+        if (entry != null) return entry;
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        entry = new Entry(entityId);
+        insert(keys, values, entityId, entry);
+        size++;
+        return entry;
+    }
+
+    private static void prune(Entry entry) {
+        if (entry.uid == -1 && entry.stack == null && !entry.autoRemove) {
+            remove(entry.entityId);
+        }
+    }
+
+    private static void rehash(int capacity) {
+        int[] newKeys = new int[capacity];
+        Entry[] newValues = new Entry[capacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                insert(newKeys, newValues, keys[i], values[i]);
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static void insert(int[] keys, Entry[] values, int key, Entry value) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public static final class Entry {
+        private final int entityId;
+        private int uid = -1;
+        private ItemStack stack;
+        private boolean autoRemove;
+
+        private Entry(int entityId) {
+            this.entityId = entityId;
+        }
+
+        public boolean hasItem() {
+            return uid != -1;
+        }
+
+        /**
+         * @return Uid of the item that launched the projectile, -1 if it fires no projectile triggers
+         */
+        public int getUid() {
+            return uid;
+        }
+
+        @Nullable
+        public ItemStack getStack() {
+            return stack;
+        }
+
+        public boolean isAutoRemove() {
+            return autoRemove;
+        }
+    }
+
+    public static class EventListener implements Listener {
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onEntityRemove(EntityRemoveFromWorldEvent e) {
+            if (size == 0) return;
+            remove(e.getEntity().getEntityId());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onEntitiesUnload(EntitiesUnloadEvent e) {
+            if (size == 0) return;
+            for (Entity entity : e.getEntities()) {
+                remove(entity.getEntityId());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package think.rpgitems.data;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Owns the lifecycle of the state kept per player or entity.
+ * <p>
+ * Every store holding such state registers itself here. All stores are released when a player quits,
+ * {@link Scope#ENTITY} stores also when any other entity is removed from its world.
+ * Stores managing their own lifecycle may register for reporting only.
+ */
+public final class SessionManager {
+    private static final SessionManager instance = new SessionManager();
+
+    private final Map<String, Store> stores = new LinkedHashMap<>();
+    private final List<Store> playerStores = new ArrayList<>();
+    private final List<Store> entityStores = new ArrayList<>();
+
+    private SessionManager() {
+    }
+
+    public static SessionManager instance() {
+        return instance;
+    }
+
+    /**
+     * @param scope      What the UUIDs the store is keyed by belong to
+     * @param release    Drops everything kept for a player or entity UUID, must be cheap for {@link Scope#ENTITY} stores
+     * @param size       Number of live entries in the store
+     * @param entryBytes Rough size of a single entry, used for {@link Store#estimateBytes()}
+     */
+    public void register(String name, Scope scope, Consumer<UUID> release, IntSupplier size, int entryBytes) {
+        Store store = new Store(name, release, size, entryBytes);
+        put(store);
+        playerStores.add(store);
+        if (scope == Scope.ENTITY) {
+            entityStores.add(store);
+        }
+    }
+
+    /**
+     * Registers a store releasing its entries by itself, so it is only listed with its size
+     *
+     * @param size       Number of live entries in the store
+     * @param entryBytes Rough size of a single entry, used for {@link Store#estimateBytes()}
+     */
+    public void registerReport(String name, IntSupplier size, int entryBytes) {
+        put(new Store(name, null, size, entryBytes));
+    }
+
+    private void put(Store store) {
+        Store previous = stores.put(store.name(), store);
+        if (previous != null) {
+            playerStores.remove(previous);
+            entityStores.remove(previous);
+        }
+    }
+
+    /**
+     * Releases the state of a player in all stores
+     */
+    public void release(UUID player) {
+        for (Store store : playerStores) {
+            store.release().accept(player);
+        }
+    }
+
+    /**
+     * Releases the state of an entity other than a player in the stores keeping state for any entity
+     */
+    public void releaseEntity(UUID entity) {
+        for (Store store : entityStores) {
+            store.release().accept(entity);
+        }
+    }
+
+    public Collection<Store> getStores() {
+        return Collections.unmodifiableCollection(stores.values());
+    }
+
+    public enum Scope {
+        /**
+         * Keyed by player UUIDs only, released when the player quits
+         */
+        PLAYER,
+        /**
+         * Keyed by UUIDs of any entity, also released when a non-player entity is removed
+         */
+        ENTITY
+    }
+
+    /**
+     * @param release Drops everything kept for a UUID, null for stores registered for reporting only
+     */
+    public record Store(String name, @Nullable Consumer<UUID> release, IntSupplier size, int entryBytes) {
+        public int entries() {
+            return size.getAsInt();
+        }
+
+        public long estimateBytes() {
+            return (long) entries() * entryBytes;
+        }
+    }
+
+    public static class EventListener implements Listener {
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onQuit(PlayerQuitEvent e) {
+            instance.release(e.getPlayer().getUniqueId());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onEntityRemove(EntityRemoveFromWorldEvent e) {
+            // players leave their world on every world change, their state is released on quit instead
+            if (e.getEntity() instanceof Player) return;
+            instance.releaseEntity(e.getEntity().getUniqueId());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package think.rpgitems.item;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import think.rpgitems.RPGItems;
+import think.rpgitems.power.Utils;
+
+/**
+ * Armour of a player taking damage, applied from the worn pieces resolved once per event.
+ * <p>
+ * Hit costs and flat reductions of all pieces are applied first, then their armour expressions, in armour slot order.
+ * Hit costs are written to a piece at most once, and only slots whose durability changed are written back.
+ */
+public final class ArmourPipeline {
+    // order of PlayerInventory#getArmorContents()
+    private static final EquipmentSlot[] SLOTS = {EquipmentSlot.FEET, EquipmentSlot.LEGS, EquipmentSlot.CHEST, EquipmentSlot.HEAD};
+
+    private ArmourPipeline() {
+    }
+
+    /**
+     * @param damager Damager of the event, null if it is not dealt by an entity
+     * @return Damage after the armour of the player
+     */
+    public static double apply(Player player, EntityDamageEvent event, Entity damager, double damage) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] armour = inventory.getArmorContents();
+        RPGItem[] items = new RPGItem[armour.length];
+        boolean found = false;
+        for (int i = 0; i < armour.length; i++) {
+            items[i] = ItemManager.toRPGItem(armour[i]).orElse(null);
+            found |= items[i] != null;
+        }
+        if (!found) return damage;
+
+        boolean timing = RPGItems.plugin.cfg.debugArmourTiming;
+        long[] nanos = timing ? new long[armour.length] : null;
+        for (int i = 0; i < armour.length; i++) {
+            if (items[i] == null) continue;
+            long start = timing ? System.nanoTime() : 0;
+            ItemView view = ItemView.open(items[i], armour[i]);
+            boolean changed;
+            try {
+                damage = items[i].takeDamage(player, damage, armour[i], damager);
+            } finally {
+                view.close();
+                changed = ItemMutation.flush(armour[i]);
+            }
+            if (changed) {
+                inventory.setItem(SLOTS[i], armour[i]);
+            }
+            if (timing) nanos[i] += System.nanoTime() - start;
+        }
+        for (int i = 0; i < armour.length; i++) {
+            if (items[i] == null) continue;
+            long start = timing ? System.nanoTime() : 0;
+            try {
+                damage = Utils.eval(player, damage, event, damager, items[i]);
+            } catch (Exception ignored) {
+            }
+            if (timing) nanos[i] += System.nanoTime() - start;
+        }
+        if (timing) {
+            StringBuilder report = new StringBuilder("Armour of ").append(player.getName()).append(':');
+            for (int i = 0; i < armour.length; i++) {
+                if (items[i] == null) continue;
+                report.append(' ').append(SLOTS[i]).append('=').append(items[i].getName()).append(' ').append(nanos[i] / 1000).append("us");
+            }
+            RPGItems.logger.info(report.toString());
+        }
+        return damage;
+    }
+}
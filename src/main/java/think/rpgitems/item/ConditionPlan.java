@@ -0,0 +1,144 @@
+package think.rpgitems.item;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import think.rpgitems.power.Condition;
+import think.rpgitems.power.Power;
+import think.rpgitems.power.PowerResult;
+import think.rpgitems.power.PropertyHolder;
+
+import java.util.*;
+
+/**
+ * Conditions of the powers bound to one trigger of an item, resolved when the item is rebuilt.
+ * <p>
+ * Slot {@code i} of the plan holds the conditions of the {@code i}-th power bound to the trigger,
+ * critical ones first, so dispatch only has to walk arrays.
+ */
+final class ConditionPlan {
+    static final ConditionPlan EMPTY = new ConditionPlan(new Condition<?>[0], new Condition<?>[0][], new int[0], false);
+    private static final Condition<?>[] NO_CONDITIONS = new Condition<?>[0];
+
+    private final Condition<?>[] statics;
+    private final Condition<?>[][] powerConditions;
+    private final int[] criticalCount;
+    private final boolean hasMemoizable;
+    private final boolean readsResults;
+
+    private ConditionPlan(Condition<?>[] statics, Condition<?>[][] powerConditions, int[] criticalCount, boolean hasMemoizable) {
+        this.statics = statics;
+        this.powerConditions = powerConditions;
+        this.criticalCount = criticalCount;
+        this.hasMemoizable = hasMemoizable;
+        boolean readsResults = statics.length > 0;
+        for (Condition<?>[] conditions : powerConditions) {
+            readsResults |= conditions.length > 0;
+        }
+        this.readsResults = readsResults;
+    }
+
+    static ConditionPlan compile(Power[] powers, List<Condition<?>> conditions) {
+        Condition<?>[][] powerConditions = new Condition<?>[powers.length][];
+        int[] criticalCount = new int[powers.length];
+        if (conditions.isEmpty()) {
+            Arrays.fill(powerConditions, NO_CONDITIONS);
+            return new ConditionPlan(NO_CONDITIONS, powerConditions, criticalCount, false);
+        }
+
+        boolean hasMemoizable = false;
+        Set<String> referenced = new HashSet<>();
+        for (int i = 0; i < powers.length; i++) {
+            Set<String> ids = powers[i].getConditions();
+            referenced.addAll(ids);
+            List<Condition<?>> critical = new ArrayList<>();
+            List<Condition<?>> normal = new ArrayList<>();
+            for (Condition<?> condition : conditions) {
+                if (!ids.contains(condition.id())) continue;
+                (condition.isCritical() ? critical : normal).add(condition);
+                hasMemoizable |= !condition.isStatic() && condition.isMemoizable();
+            }
+            criticalCount[i] = critical.size();
+            critical.addAll(normal);
+            powerConditions[i] = critical.isEmpty() ? NO_CONDITIONS : critical.toArray(NO_CONDITIONS);
+        }
+
+        // compound conditions read the static results of the conditions they reference
+        boolean grown = true;
+        while (grown) {
+            grown = false;
+            for (Condition<?> condition : conditions) {
+                if (referenced.contains(condition.id())) {
+                    grown |= referenced.addAll(condition.getConditions());
+                }
+            }
+        }
+        List<Condition<?>> statics = new ArrayList<>();
+        for (Condition<?> condition : conditions) {
+            if (condition.isStatic() && referenced.contains(condition.id())) {
+                statics.add(condition);
+            }
+        }
+        return new ConditionPlan(statics.toArray(NO_CONDITIONS), powerConditions, criticalCount, hasMemoizable);
+    }
+
+    /**
+     * @return Whether any condition of the plan reads the result map of the dispatch
+     */
+    boolean readsResults() {
+        return readsResults;
+    }
+
+    /**
+     * Evaluates the static conditions once for a dispatch
+     *
+     * @return Result map seeded with the static condition results, in item order
+     */
+    Map<PropertyHolder, PowerResult<?>> checkStatic(Player player, ItemStack stack) {
+        Map<PropertyHolder, PowerResult<?>> result = new LinkedHashMap<>();
+        if (statics.length == 0) return result;
+        Map<PropertyHolder, PowerResult<?>> view = Collections.unmodifiableMap(result);
+        for (Condition<?> condition : statics) {
+            result.put(condition, condition.check(player, stack, view));
+        }
+        return result;
+    }
+
+    /**
+     * @return Storage for dynamic results shared within one dispatch, or null if nothing can be shared
+     */
+    Map<Condition<?>, PowerResult<?>> newMemo() {
+        return hasMemoizable ? new IdentityHashMap<>() : null;
+    }
+
+    /**
+     * Checks the conditions of the {@code index}-th power bound to the trigger
+     *
+     * @return null if all conditions passed, otherwise an abort or condition result
+     */
+    <T> PowerResult<T> check(int index, Player player, ItemStack stack, Map<PropertyHolder, PowerResult<?>> context, Map<Condition<?>, PowerResult<?>> memo) {
+        if (index >= powerConditions.length) return null;
+        Condition<?>[] conditions = powerConditions[index];
+        int critical = criticalCount[index];
+        for (int i = 0; i < conditions.length; i++) {
+            if (!evaluate(conditions[i], player, stack, context, memo)) {
+                return i < critical ? PowerResult.abort() : PowerResult.condition();
+            }
+        }
+        return null;
+    }
+
+    private static boolean evaluate(Condition<?> condition, Player player, ItemStack stack, Map<PropertyHolder, PowerResult<?>> context, Map<Condition<?>, PowerResult<?>> memo) {
+        if (condition.isStatic()) {
+            return context.get(condition).isOK();
+        }
+        if (memo == null || !condition.isMemoizable()) {
+            return condition.check(player, stack, context).isOK();
+        }
+        PowerResult<?> result = memo.get(condition);
+        if (result == null) {
+            result = condition.check(player, stack, context);
+            memo.put(condition, result);
+        }
+        return result.isOK();
+    }
+}
@@ -0,0 +1,64 @@
+package think.rpgitems.item;
+
+import cat.nyaa.nyaacore.utils.ItemTagUtils;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Optional;
+
+import static think.rpgitems.item.RPGItem.*;
+
+/**
+ * RPGItems identity tags of an item stack, see {@link ItemManager#identify(ItemStack)}
+ */
+public final class ItemIdentity {
+    static final ItemIdentity NONE = new ItemIdentity(null, -1, false);
+
+    private final ItemStack stack;
+    private final int uid;
+    private final boolean model;
+    private Optional<String> stackId;
+
+    private ItemIdentity(ItemStack stack, int uid, boolean model) {
+        this.stack = stack;
+        this.uid = uid;
+        this.model = model;
+        this.stackId = stack == null ? Optional.empty() : null;
+    }
+
+    static ItemIdentity read(ItemStack stack) {
+        Optional<Integer> uid = ItemTagUtils.getInt(stack, NBT_UID);
+        if (!uid.isPresent()) {
+            return NONE;
+        }
+        return new ItemIdentity(stack, uid.get(), ItemTagUtils.getBoolean(stack, NBT_IS_MODEL).orElse(false));
+    }
+
+    public boolean isPresent() {
+        return stack != null;
+    }
+
+    public int getUid() {
+        return uid;
+    }
+
+    public boolean isModel() {
+        return model;
+    }
+
+    public Optional<RPGItem> getItem(boolean ignoreModel) {
+        if (stack == null || (ignoreModel && model)) {
+            return Optional.empty();
+        }
+        return ItemManager.getItem(uid);
+    }
+
+    /**
+     * @return UUID tag of the item stack, read on first use
+     */
+    public Optional<String> getStackId() {
+        if (stackId == null) {
+            stackId = ItemTagUtils.getString(stack, NBT_ITEM_UUID);
+        }
+        return stackId;
+    }
+}
@@ -52,6 +52,8 @@ public class ItemManager {
     private static HashMap<String, ItemGroup> groupByName = new HashMap<>();
     private static HashMap<String, FileLock> itemFileLocks = new HashMap<>();
     private static HashMap<RPGItem, Pair<File, FileLock>> unlockedItem = new HashMap<>();
+    private static final int MAX_CACHED_IDENTITIES = 4096;
+    private static final Map<ItemStack, ItemIdentity> identities = new IdentityHashMap<>();
     private static RPGItems plugin;
     private static File itemsDir;
     private static File backupsDir;
@@ -494,22 +496,47 @@ public class ItemManager {
     }
 
     public static Optional<RPGItem> toRPGItem(ItemStack item, boolean ignoreModel) {
-        if (item == null || item.getType() == Material.AIR)
-            return Optional.empty();
-        if (!item.hasItemMeta())
-            return Optional.empty();
-
-        Optional<Integer> uid = cat.nyaa.nyaacore.utils.ItemTagUtils.getInt(item, NBT_UID);
-        Optional<Integer> itemUuid = cat.nyaa.nyaacore.utils.ItemTagUtils.getInt(item, NBT_ITEM_UUID);
-        Optional<Boolean> isModel = cat.nyaa.nyaacore.utils.ItemTagUtils.getBoolean(item, NBT_IS_MODEL);
-
-        if (!uid.isPresent()) {
-            return Optional.empty();
+        return identify(item).getItem(ignoreModel);
+    }
+
+    /**
+     * Reads the identity tags of an item stack.
+     * <p>
+     * On the main thread the result is cached by item stack instance until the next tick,
+     * or until {@link #invalidateIdentity(ItemStack)} is called for the stack.
+     * RPGItems does so whenever it rewrites the tags of a stack, code rewriting the meta of a stack
+     * identified earlier in the same tick must call it as well.
+     */
+    public static ItemIdentity identify(ItemStack item) {
+        if (item == null || item.getType() == Material.AIR || !item.hasItemMeta())
+            return ItemIdentity.NONE;
+        if (!Bukkit.isPrimaryThread())
+            return ItemIdentity.read(item);
+        ItemIdentity identity = identities.get(item);
+        if (identity == null) {
+            if (identities.size() >= MAX_CACHED_IDENTITIES) {
+                identities.clear();
+            }
+            identity = ItemIdentity.read(item);
+            identities.put(item, identity);
         }
-        if (ignoreModel && isModel.orElse(false)) {
-            return Optional.empty();
+        return identity;
+    }
+
+    /**
+     * Must be called after the identity tags of an item stack change
+     */
+    public static void invalidateIdentity(ItemStack item) {
+        if (Bukkit.isPrimaryThread()) {
+            identities.remove(item);
         }
-        return ItemManager.getItem(uid.get());
+    }
+
+    /**
+     * Drops all cached identities, called once per tick
+     */
+    public static void clearIdentities() {
+        identities.clear();
     }
 
     public static Optional<RPGItem> toRPGItemByMeta(ItemStack item) {
@@ -522,6 +549,11 @@ public class ItemManager {
         if (!item.hasItemMeta())
             return Optional.empty();
 
+        ItemIdentity identity = identify(item);
+        if (identity.isPresent()) {
+            return identity.getItem(ignoreModel);
+        }
+
         ItemMeta meta = item.getItemMeta();
         if (meta == null) return Optional.empty();
 
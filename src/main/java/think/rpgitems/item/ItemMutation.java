@@ -0,0 +1,81 @@
+package think.rpgitems.item;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataContainer;
+
+import javax.annotation.Nullable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static think.rpgitems.item.RPGItem.TAG_DURABILITY;
+import static think.rpgitems.utils.ItemTagUtils.set;
+
+/**
+ * Tag writes made to an item stack while a {@link RPGItem#power} dispatch runs with it.
+ * <p>
+ * They are applied together with the lore rebuild they require by a single {@link RPGItem#updateItem(ItemStack, boolean)}
+ * when the dispatch fires its post event or ends, or earlier if something updates the stack in between.
+ */
+final class ItemMutation {
+    private static final Map<ItemStack, ItemMutation> pending = new IdentityHashMap<>();
+
+    private final RPGItem item;
+    private Integer durability;
+
+    private ItemMutation(RPGItem item) {
+        this.item = item;
+    }
+
+    /**
+     * @return Whether writes to the stack can be batched, that is a dispatch with it is running on this thread
+     */
+    static boolean isBatching(RPGItem item, ItemStack stack) {
+        ItemView view = ItemView.find(stack);
+        return view != null && view.getItem() == item;
+    }
+
+    static void setDurability(RPGItem item, ItemStack stack, int durability) {
+        pending.computeIfAbsent(stack, k -> new ItemMutation(item)).durability = durability;
+    }
+
+    /**
+     * @return Durability pending to be written to the stack, null if there is none
+     */
+    @Nullable
+    static Integer getDurability(ItemStack stack) {
+        if (pending.isEmpty()) return null;
+        ItemMutation mutation = pending.get(stack);
+        return mutation == null ? null : mutation.durability;
+    }
+
+    /**
+     * Removes the pending writes of the stack, to be applied by the caller
+     */
+    @Nullable
+    static ItemMutation take(ItemStack stack) {
+        if (pending.isEmpty()) return null;
+        return pending.remove(stack);
+    }
+
+    /**
+     * @return Whether pending writes were applied to the stack
+     */
+    static boolean flush(ItemStack stack) {
+        ItemMutation mutation = pending.get(stack);
+        if (mutation == null) return false;
+        if (stack.getType() == Material.AIR || stack.getAmount() == 0) {
+            // used up by a power, nothing left to write to
+            pending.remove(stack);
+            return false;
+        }
+        mutation.item.updateItem(stack, true);
+        return true;
+    }
+
+    void applyTo(PersistentDataContainer tag) {
+        if (durability != null) {
+            set(tag, TAG_DURABILITY, durability);
+        }
+    }
+}
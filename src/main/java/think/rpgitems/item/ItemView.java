@@ -0,0 +1,168 @@
+package think.rpgitems.item;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import think.rpgitems.power.propertymodifier.Modifier;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+import static think.rpgitems.item.RPGItem.*;
+import static think.rpgitems.utils.ItemTagUtils.*;
+
+/**
+ * RPGItems tag data of the item stack a {@link RPGItem#power} dispatch runs with, decoded from its meta at most once.
+ * <p>
+ * While the dispatch is running, {@link RPGItem#getItemStackDurability(ItemStack)} and
+ * {@link RPGItem#getModifiers(ItemStack)} of that stack are served from the view,
+ * so powers, conditions and modifiers reading them do not clone the meta again.
+ */
+public final class ItemView {
+    private static final Deque<ItemView> open = new ArrayDeque<>();
+
+    private final RPGItem item;
+    private final ItemStack stack;
+    private final boolean pushed;
+    private boolean decoded;
+    private int uid = -1;
+    private Integer durability;
+    private UUID owner;
+    private UUID stackId;
+    private boolean model;
+    private List<Modifier> modifiers;
+
+    private ItemView(RPGItem item, ItemStack stack, boolean pushed) {
+        this.item = item;
+        this.stack = stack;
+        this.pushed = pushed;
+    }
+
+    /**
+     * Opens the view of a dispatch, which must be closed when the dispatch ends
+     */
+    static ItemView open(RPGItem item, ItemStack stack) {
+        boolean push = Bukkit.isPrimaryThread();
+        ItemView view = new ItemView(item, stack, push);
+        if (push) {
+            open.push(view);
+        }
+        return view;
+    }
+
+    void close() {
+        if (pushed) {
+            open.remove(this);
+        }
+    }
+
+    /**
+     * @return View of the innermost running dispatch with exactly this item stack
+     */
+    @Nullable
+    public static ItemView find(ItemStack stack) {
+        if (stack == null || open.isEmpty() || !Bukkit.isPrimaryThread()) return null;
+        for (ItemView view : open) {
+            if (view.stack == stack) return view;
+        }
+        return null;
+    }
+
+    /**
+     * Drops the decoded data of views of the item stack and its cached identity, after its tags were rewritten
+     */
+    static void invalidate(ItemStack stack) {
+        ItemManager.invalidateIdentity(stack);
+        if (open.isEmpty() || !Bukkit.isPrimaryThread()) return;
+        for (ItemView view : open) {
+            if (view.stack == stack) {
+                view.decoded = false;
+                view.modifiers = null;
+            }
+        }
+    }
+
+    /**
+     * Keeps views of the item stack in sync with a durability written to it
+     */
+    static void updateDurability(ItemStack stack, int durability) {
+        if (open.isEmpty() || !Bukkit.isPrimaryThread()) return;
+        for (ItemView view : open) {
+            if (view.stack == stack && view.decoded && view.durability != null) {
+                view.durability = durability;
+            }
+        }
+    }
+
+    private void decode() {
+        if (decoded) return;
+        decoded = true;
+        uid = -1;
+        durability = null;
+        owner = null;
+        stackId = null;
+        model = false;
+        ItemMeta meta = stack.getItemMeta();
+        if (meta == null) return;
+        PersistentDataContainer container = meta.getPersistentDataContainer();
+        if (!container.has(TAG_META, PersistentDataType.TAG_CONTAINER)) return;
+        PersistentDataContainer tag = getTag(container, TAG_META);
+        Integer itemUid = getInt(tag, TAG_ITEM_UID);
+        uid = itemUid == null ? -1 : itemUid;
+        if (item.getMaxDurability() != -1) {
+            // a dispatch nested in another one with the same stack continues from the durability not yet written
+            Integer pending = ItemMutation.getDurability(stack);
+            durability = pending != null ? pending : optInt(tag, TAG_DURABILITY).orElseGet(item::getDefaultDurability);
+        }
+        owner = optUUID(tag, TAG_OWNER).orElse(null);
+        stackId = optUUID(tag, TAG_STACK_ID).orElse(null);
+        model = optBoolean(tag, TAG_IS_MODEL).orElse(false);
+    }
+
+    public RPGItem getItem() {
+        return item;
+    }
+
+    public ItemStack getItemStack() {
+        return stack;
+    }
+
+    public int getUid() {
+        decode();
+        return uid;
+    }
+
+    /**
+     * @return Durability of the stack, empty if the item has no durability or the stack was used up
+     */
+    public Optional<Integer> getDurability() {
+        if (stack.getType() == Material.AIR) return Optional.empty();
+        decode();
+        return Optional.ofNullable(durability);
+    }
+
+    public Optional<UUID> getOwner() {
+        decode();
+        return Optional.ofNullable(owner);
+    }
+
+    public Optional<UUID> getStackId() {
+        decode();
+        return Optional.ofNullable(stackId);
+    }
+
+    public boolean isModel() {
+        decode();
+        return model;
+    }
+
+    public List<Modifier> getModifiers() {
+        if (modifiers == null) {
+            modifiers = RPGItem.readModifiers(stack);
+        }
+        return modifiers;
+    }
+}
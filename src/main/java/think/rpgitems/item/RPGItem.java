@@ -8,7 +8,9 @@ import cat.nyaa.nyaacore.utils.ItemTagUtils;
 import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
+import com.udojava.evalex.Expression;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.HoverEvent;
@@ -25,6 +27,7 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.Damageable;
@@ -32,6 +35,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.LeatherArmorMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.RegisteredListener;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import think.rpgitems.AdminCommands;
@@ -42,15 +46,19 @@ import think.rpgitems.power.*;
 import think.rpgitems.power.cond.SlotCondition;
 import think.rpgitems.power.marker.*;
 import think.rpgitems.power.propertymodifier.Modifier;
+import think.rpgitems.power.propertymodifier.ModifierChain;
 import think.rpgitems.power.proxy.Interceptor;
 import think.rpgitems.power.trigger.BaseTriggers;
 import think.rpgitems.power.trigger.Trigger;
+import think.rpgitems.support.WGSupport;
 import think.rpgitems.utils.MaterialUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -96,6 +104,19 @@ public class RPGItem {
     private List<Condition<?>> conditions = new ArrayList<>();
     private List<Marker> markers = new ArrayList<>();
     private final Map<String, PlaceholderHolder> placeholders = new HashMap<>();
+    // Powers bound to each trigger, in item order. Rebuilt whenever powers change
+    @SuppressWarnings("rawtypes")
+    private Map<Trigger, Power[]> powerIndex = ImmutableMap.of();
+    @SuppressWarnings("rawtypes")
+    private Map<Trigger, ConditionPlan> conditionPlans = ImmutableMap.of();
+    // Triggers bound to interval powers only, see TickScheduler
+    @SuppressWarnings("rawtypes")
+    private Map<Trigger, Power[]> scheduledPowers = ImmutableMap.of();
+    // Pimpl of each unproxied power, reused across firings
+    private final Map<Power, Pimpl> impls = new ConcurrentHashMap<>();
+    // Custom triggers by the class of base trigger they extend, sorted by priority
+    @SuppressWarnings("rawtypes")
+    private Map<Class<? extends Trigger>, Trigger[]> customTriggerIndex = ImmutableMap.of();
     @SuppressWarnings("rawtypes")
     private final Map<String, Trigger> triggers = new HashMap<>();
     private final HashMap<PropertyHolder, NamespacedKey> keys = new HashMap<>();
@@ -115,6 +136,7 @@ public class RPGItem {
     private AttributeMode attributeMode = AttributeMode.PARTIAL_UPDATE;
     private int armour = 0;
     private String armourExpression = "";
+    private Expression[] compiledArmourExpression;
     private String damageType = "";
     private boolean canBeOwned = false;
     private boolean hasStackId = false;
@@ -184,7 +206,15 @@ public class RPGItem {
     }
 
     public static List<Modifier> getModifiers(ItemStack stack) {
-        Optional<String> opt = ItemTagUtils.getString(stack, NBT_ITEM_UUID);
+        ItemView view = ItemView.find(stack);
+        if (view != null) {
+            return view.getModifiers();
+        }
+        return readModifiers(stack);
+    }
+
+    static List<Modifier> readModifiers(ItemStack stack) {
+        Optional<String> opt = ItemManager.identify(stack).getStackId();
         if (!opt.isPresent()) {
             Optional<RPGItem> rpgItemOpt = ItemManager.toRPGItemByMeta(stack);
             if (!rpgItemOpt.isPresent()) {
@@ -192,7 +222,7 @@ public class RPGItem {
             }
             RPGItem rpgItem = rpgItemOpt.get();
             rpgItem.updateItem(stack);
-            Optional<String> opt1 = ItemTagUtils.getString(stack, NBT_ITEM_UUID);
+            Optional<String> opt1 = ItemManager.identify(stack).getStackId();
             if (!opt1.isPresent()) {
                 return Collections.emptyList();
             }
@@ -224,18 +254,25 @@ public class RPGItem {
         return getModifiers(tag, null);
     }
 
+    /**
+     * @return Whether any property modifier applies to powers fired by the player with the stack
+     */
+    public static boolean hasModifiers(Player player, ItemStack stack) {
+        return !getModifiers(player).isEmpty() || !getModifiers(stack).isEmpty();
+    }
+
     public static void invalidateModifierCache() {
         modifierCache.invalidateAll();
+        ModifierChain.invalidateAll();
     }
 
     public static List<Modifier> getModifiers(SubItemTagContainer tag, UUID key) {
-        Optional<UUID> uuid = Optional.ofNullable(key);
-        if (!uuid.isPresent()) {
-            uuid = Optional.of(UUID.randomUUID());
-        }
-
         try {
-            return modifierCache.get(uuid.get(), () -> getModifiersUncached(tag));
+            // containers without a stable key are not worth caching
+            if (key == null) {
+                return getModifiersUncached(tag);
+            }
+            return modifierCache.get(key, () -> getModifiersUncached(tag));
         } catch (ExecutionException e) {
             throw new RuntimeException(e);
         } finally {
@@ -671,6 +708,27 @@ public class RPGItem {
 
     public void setArmourExpression(String armour) {
         this.armourExpression = armour;
+        this.compiledArmourExpression = null;
+    }
+
+    /**
+     * Armour expression parsed on first use and kept for following evaluations, which must all run on the main thread.
+     * Damage not dealt by an entity leaves the damager variables undefined, so it gets an expression of its own.
+     *
+     * @param byEntity Whether the damage is dealt by an entity
+     * @return Compiled expression, or null if this item has none
+     */
+    @Nullable
+    public Expression getCompiledArmourExpression(boolean byEntity) {
+        if (Strings.isNullOrEmpty(armourExpression)) return null;
+        if (compiledArmourExpression == null) {
+            compiledArmourExpression = new Expression[2];
+        }
+        int i = byEntity ? 1 : 0;
+        if (compiledArmourExpression[i] == null) {
+            compiledArmourExpression[i] = new Expression(armourExpression);
+        }
+        return compiledArmourExpression[i];
     }
 
     public void updateItem(ItemStack item) {
@@ -685,6 +743,10 @@ public class RPGItem {
         PersistentDataContainer itemTagContainer = Objects.requireNonNull(meta).getPersistentDataContainer();
         SubItemTagContainer rpgitemsTagContainer = makeTag(itemTagContainer, TAG_META);
         set(rpgitemsTagContainer, TAG_ITEM_UID, getUid());
+        ItemMutation mutation = ItemMutation.take(item);
+        if (mutation != null) {
+            mutation.applyTo(rpgitemsTagContainer);
+        }
         addDurabilityBar(rpgitemsTagContainer, lore);
         if (meta instanceof LeatherArmorMeta) {
             ((LeatherArmorMeta) meta).setColor(Color.fromRGB(getDataValue()));
@@ -705,7 +767,7 @@ public class RPGItem {
             }
         }
         // Patch for mcMMO buff. See SkillUtils.java#removeAbilityBuff in mcMMO
-        if (item.hasItemMeta() && Objects.requireNonNull(item.getItemMeta()).hasLore() && Objects.requireNonNull(item.getItemMeta().getLore()).contains("mcMMO Ability Tool"))
+        if (meta.hasLore() && Objects.requireNonNull(meta.getLore()).contains("mcMMO Ability Tool"))
             lore.add("mcMMO Ability Tool");
         lore.addAll(reservedLores);
         meta.setLore(lore);
@@ -764,6 +826,7 @@ public class RPGItem {
         } catch (IllegalAccessException e) {
             e.printStackTrace();
         }
+        ItemView.invalidate(item);
     }
 
     private void checkAndMakeUnique(SubItemTagContainer meta) {
@@ -1065,68 +1128,75 @@ public class RPGItem {
         if (powers.isEmpty()) return false;
         if (checkPermission(player, true) == Event.Result.DENY) return false;
 
+        if (!shouldFireEvent(RPGItemsPowersPreFireEvent.getHandlerList(), trigger)) {
+            // WorldGuard is the only built-in pre-fire listener, ask it directly
+            return WGSupport.canUse(player, this, powers, plugin.cfg.wgShowWarning) != Event.Result.DENY;
+        }
         RPGItemsPowersPreFireEvent<TEvent, TPower, TResult, TReturn> preFire = new RPGItemsPowersPreFireEvent<>(player, i, event, this, trigger, powers);
         Bukkit.getServer().getPluginManager().callEvent(preFire);
         return !preFire.isCancelled();
     }
 
-    private <T> PowerResult<T> checkConditions(Player player, ItemStack i, Pimpl pimpl, List<Condition<?>> conds, Map<PropertyHolder, PowerResult<?>> context) {
-        Set<String> ids = pimpl.getPower().getConditions();
-        List<Condition<?>> conditions = conds.stream().filter(p -> ids.contains(p.id())).collect(Collectors.toList());
-        List<Condition<?>> failed = conditions.stream().filter(p -> p.isStatic() ? !context.get(p).isOK() : !p.check(player, i, context).isOK()).collect(Collectors.toList());
-        if (failed.isEmpty()) return null;
-        return failed.stream().anyMatch(Condition::isCritical) ? PowerResult.abort() : PowerResult.condition();
-    }
-
-    private Map<Condition<?>, PowerResult<?>> checkStaticCondition(Player player, ItemStack i, List<Condition<?>> conds) {
-        Set<String> ids = powers.stream().flatMap(p -> p.getConditions().stream()).collect(Collectors.toSet());
-        List<Condition<?>> statics = conds.stream().filter(Condition::isStatic).filter(p -> ids.contains(p.id())).collect(Collectors.toList());
-        Map<Condition<?>, PowerResult<?>> result = new LinkedHashMap<>();
-        for (Condition<?> c : statics) {
-            result.put(c, c.check(player, i, Collections.unmodifiableMap(result)));
+    public <TEvent extends Event, TPower extends Pimpl, TResult, TReturn> TReturn power(Player player, ItemStack i, TEvent event, Trigger<TEvent, TPower, TResult, TReturn> trigger, Object context) {
+        ItemView view = ItemView.open(this, i);
+        try {
+            return dispatch(player, i, event, trigger, context);
+        } finally {
+            view.close();
+            ItemMutation.flush(i);
         }
-        return result;
     }
 
-    public <TEvent extends Event, TPower extends Pimpl, TResult, TReturn> TReturn power(Player player, ItemStack i, TEvent event, Trigger<TEvent, TPower, TResult, TReturn> trigger, Object context) {
+    private <TEvent extends Event, TPower extends Pimpl, TResult, TReturn> TReturn dispatch(Player player, ItemStack i, TEvent event, Trigger<TEvent, TPower, TResult, TReturn> trigger, Object context) {
         powerCustomTrigger(player, i, event, trigger, context);
 
         List<TPower> powers = this.getPower(trigger, player, i);
         TReturn ret = trigger.def(player, i, event);
         if (!triggerPreCheck(player, i, event, trigger, powers)) return ret;
         try {
-            List<Condition<?>> conds = getConditions();
-            Map<Condition<?>, PowerResult<?>> staticCond = checkStaticCondition(player, i, conds);
-            Map<PropertyHolder, PowerResult<?>> resultMap = new LinkedHashMap<>(staticCond);
-            for (TPower power : powers) {
-                PowerResult<TResult> result = checkConditions(player, i, power, conds, resultMap);
-                if (result != null) {
-                    resultMap.put(power.getPower(), result);
-                } else {
+            ConditionPlan plan = conditionPlans.getOrDefault(trigger, ConditionPlan.EMPTY);
+            boolean postFire = shouldFireEvent(RPGItemsPowersPostFireEvent.getHandlerList(), trigger);
+            Map<PropertyHolder, PowerResult<?>> resultMap = postFire || plan.readsResults() ? plan.checkStatic(player, i) : null;
+            Map<Condition<?>, PowerResult<?>> memo = plan.newMemo();
+            for (int index = 0; index < powers.size(); index++) {
+                TPower power = powers.get(index);
+                PowerResult<TResult> result = plan.check(index, player, i, resultMap, memo);
+                if (result == null) {
                     if (power.getPower().requiredContext() != null) {
                         result = handleContext(player, i, event, trigger, power);
                     } else {
                         result = trigger.run(power, player, i, event, context);
                     }
+                    // the power may have changed what shared results were computed from
+                    if (memo != null) {
+                        memo.clear();
+                    }
+                }
+                if (resultMap != null) {
                     resultMap.put(power.getPower(), result);
                 }
                 ret = trigger.next(ret, result);
                 if (result.isAbort()) break;
             }
-            triggerPostFire(player, i, event, trigger, resultMap, ret);
+            triggerPostFire(player, i, event, trigger, postFire ? resultMap : null, ret);
             return ret;
         } finally {
             Context.instance().cleanTemp(player.getUniqueId());
         }
     }
 
-    @SuppressWarnings("unchecked")
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public <TEvent extends Event, TPower extends Pimpl, TResult, TReturn> void powerCustomTrigger(Player player, ItemStack i, TEvent event, Trigger<TEvent, TPower, TResult, TReturn> trigger, Object context) {
-        this.triggers.entrySet()
-                .parallelStream()
-                .filter(e -> trigger.getClass().isInstance(e.getValue()))
-                .sorted(Comparator.comparing(en -> en.getValue().getPriority()))
-                .filter(e -> e.getValue().check(player, i, event)).forEach(e -> this.power(player, i, event, e.getValue(), context));
+        // custom triggers are only resolved from the base trigger they derive from
+        if (trigger.getBase() != null) return;
+        Trigger[] customTriggers = customTriggerIndex.get(trigger.getClass());
+        if (customTriggers == null) return;
+        for (Trigger customTrigger : customTriggers) {
+            Trigger<TEvent, TPower, TResult, TReturn> t = (Trigger<TEvent, TPower, TResult, TReturn>) customTrigger;
+            if (t.check(player, i, event)) {
+                this.power(player, i, event, t, context);
+            }
+        }
     }
 
     public <TEvent extends Event, TPower extends Pimpl, TResult, TReturn> TReturn power(Player player, ItemStack i, TEvent event, Trigger<TEvent, TPower, TResult, TReturn> trigger) {
@@ -1162,8 +1232,11 @@ public class RPGItem {
     }
 
     private <TEvent extends Event, TPower extends Pimpl, TResult, TReturn> void triggerPostFire(Player player, ItemStack itemStack, TEvent event, Trigger<TEvent, TPower, TResult, TReturn> trigger, Map<PropertyHolder, PowerResult<?>> resultMap, TReturn ret) {
-        RPGItemsPowersPostFireEvent<TEvent, TPower, TResult, TReturn> postFire = new RPGItemsPowersPostFireEvent<>(player, itemStack, event, this, trigger, resultMap, ret);
-        Bukkit.getServer().getPluginManager().callEvent(postFire);
+        ItemMutation.flush(itemStack);
+        if (resultMap != null) {
+            RPGItemsPowersPostFireEvent<TEvent, TPower, TResult, TReturn> postFire = new RPGItemsPowersPostFireEvent<>(player, itemStack, event, this, trigger, resultMap, ret);
+            Bukkit.getServer().getPluginManager().callEvent(postFire);
+        }
 
         if (getItemStackDurability(itemStack).map(d -> d <= 0).orElse(false)) {
             itemStack.setAmount(0);
@@ -1171,10 +1244,83 @@ public class RPGItem {
         }
     }
 
+    /**
+     * @return Whether the fire event is enabled for this trigger and someone besides our own WorldGuard hook listens to it
+     */
+    @SuppressWarnings("rawtypes")
+    private static boolean shouldFireEvent(HandlerList handlers, Trigger trigger) {
+        List<String> enabled = plugin.cfg.fireEventTriggers;
+        if (!enabled.isEmpty() && !enabled.contains(trigger.name()) && (trigger.getBase() == null || !enabled.contains(trigger.getBase()))) {
+            return false;
+        }
+        for (RegisteredListener listener : handlers.getRegisteredListeners()) {
+            if (!(listener.getListener() instanceof WGSupport.EventListener)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void rebuild() {
         List<String> lines = getTooltipLines();
         lines.remove(0);
         setLore(lines);
+        rebuildPowerIndex();
+        rebuildCustomTriggerIndex();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void rebuildPowerIndex() {
+        impls.keySet().retainAll(powers);
+        Map<Trigger, List<Power>> index = new LinkedHashMap<>();
+        for (Power power : powers) {
+            for (Trigger trigger : power.getTriggers()) {
+                index.computeIfAbsent(trigger, t -> new ArrayList<>()).add(power);
+            }
+        }
+        ImmutableMap.Builder<Trigger, Power[]> builder = ImmutableMap.builder();
+        ImmutableMap.Builder<Trigger, ConditionPlan> plans = ImmutableMap.builder();
+        ImmutableMap.Builder<Trigger, Power[]> scheduled = ImmutableMap.builder();
+        index.forEach((trigger, bound) -> {
+            Power[] array = bound.toArray(new Power[0]);
+            builder.put(trigger, array);
+            plans.put(trigger, ConditionPlan.compile(array, conditions));
+            if (bound.stream().allMatch(p -> p instanceof IntervalTick && ((IntervalTick) p).getInterval() > 0)) {
+                scheduled.put(trigger, array);
+            }
+        });
+        powerIndex = builder.build();
+        conditionPlans = plans.build();
+        scheduledPowers = scheduled.build();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void rebuildCustomTriggerIndex() {
+        if (triggers.isEmpty()) {
+            customTriggerIndex = ImmutableMap.of();
+            return;
+        }
+        List<Trigger> sorted = new ArrayList<>(triggers.values());
+        sorted.sort((a, b) -> a.getPriority() != b.getPriority() ? Integer.compare(a.getPriority(), b.getPriority()) : a.name().compareTo(b.name()));
+        Map<Class<? extends Trigger>, List<Trigger>> index = new LinkedHashMap<>();
+        for (Trigger base : Trigger.values()) {
+            Class<? extends Trigger> baseClass = base.getClass();
+            if (index.containsKey(baseClass)) continue;
+            List<Trigger> matched = new ArrayList<>();
+            for (Trigger custom : sorted) {
+                if (baseClass.isInstance(custom)) {
+                    matched.add(custom);
+                }
+            }
+            index.put(baseClass, matched);
+        }
+        ImmutableMap.Builder<Class<? extends Trigger>, Trigger[]> builder = ImmutableMap.builder();
+        index.forEach((baseClass, matched) -> {
+            if (!matched.isEmpty()) {
+                builder.put(baseClass, matched.toArray(new Trigger[0]));
+            }
+        });
+        customTriggerIndex = builder.build();
     }
 
     @SuppressWarnings("deprecation")
@@ -1267,6 +1413,7 @@ public class RPGItem {
         meta.commit();
         itemMeta.setDisplayName(getDisplayName());
         itemStack.setItemMeta(itemMeta);
+        ItemView.invalidate(itemStack);
     }
 
     public void unModel(ItemStack itemStack, Player owner) {
@@ -1283,6 +1430,7 @@ public class RPGItem {
         meta.commit();
         itemMeta.setDisplayName(getDisplayName());
         itemStack.setItemMeta(itemMeta);
+        ItemView.invalidate(itemStack);
     }
 
     public Event.Result checkPermission(Player p, boolean showWarn) {
@@ -1348,6 +1496,11 @@ public class RPGItem {
     }
 
     public void setItemStackDurability(ItemStack item, int val) {
+        if (getMaxDurability() != -1 && ItemMutation.isBatching(this, item)) {
+            ItemMutation.setDurability(this, item, val);
+            ItemView.updateDurability(item, val);
+            return;
+        }
         ItemMeta itemMeta = item.getItemMeta();
         SubItemTagContainer tagContainer = makeTag(Objects.requireNonNull(itemMeta), TAG_META);
         if (getMaxDurability() != -1) {
@@ -1356,12 +1509,17 @@ public class RPGItem {
         tagContainer.commit();
         item.setItemMeta(itemMeta);
         this.updateItem(item, true);
+        ItemView.updateDurability(item, val);
     }
 
     public Optional<Integer> getItemStackDurability(ItemStack item) {
         if (getMaxDurability() == -1) {
             return Optional.empty();
         }
+        ItemView view = ItemView.find(item);
+        if (view != null && view.getItem() == this) {
+            return view.getDurability();
+        }
         ItemMeta itemMeta = item.getItemMeta();
         //Power Consume will make this null in triggerPostFire().
         if (itemMeta == null) {
@@ -1381,21 +1539,25 @@ public class RPGItem {
     public boolean consumeDurability(ItemStack item, int val, boolean checkbound) {
         if (val == 0) return true;
         int durability;
-        ItemMeta itemMeta = item.getItemMeta();
         if (getMaxDurability() != -1) {
+            ItemView view = ItemView.find(item);
+            if (view != null && view.getItem() == this) {
+                Optional<Integer> viewed = view.getDurability();
+                if (viewed.isPresent()) {
+                    durability = viewed.get();
+                    if (!canConsume(durability, val, checkbound)) {
+                        return false;
+                    }
+                    durability = Math.min(durability - val, getMaxDurability());
+                    ItemMutation.setDurability(this, item, durability);
+                    ItemView.updateDurability(item, durability);
+                    return true;
+                }
+            }
+            ItemMeta itemMeta = item.getItemMeta();
             SubItemTagContainer tagContainer = makeTag(Objects.requireNonNull(itemMeta), TAG_META);
             durability = computeIfAbsent(tagContainer, TAG_DURABILITY, PersistentDataType.INTEGER, this::getDefaultDurability);
-            if (checkbound && (
-                    (val > 0 && durability < getDurabilityLowerBound()) ||
-                            (val < 0 && durability > getDurabilityUpperBound())
-            )) {
-                tagContainer.commit();
-                item.setItemMeta(itemMeta);
-                return false;
-            }
-            if (durability <= val
-                    && hasMarker(Unbreakable.class)
-                    && !isCustomItemModel()) {
+            if (!canConsume(durability, val, checkbound)) {
                 tagContainer.commit();
                 item.setItemMeta(itemMeta);
                 return false;
@@ -1408,10 +1570,23 @@ public class RPGItem {
             tagContainer.commit();
             item.setItemMeta(itemMeta);
             this.updateItem(item, true);
+            ItemView.updateDurability(item, durability);
         }
         return true;
     }
 
+    private boolean canConsume(int durability, int val, boolean checkbound) {
+        if (checkbound && (
+                (val > 0 && durability < getDurabilityLowerBound()) ||
+                        (val < 0 && durability > getDurabilityUpperBound())
+        )) {
+            return false;
+        }
+        return durability > val
+                || !hasMarker(Unbreakable.class)
+                || isCustomItemModel();
+    }
+
     public void give(Player player, int count, boolean wear) {
         ItemStack itemStack = toItemStack();
         itemStack.setAmount(count);
@@ -1516,6 +1691,8 @@ public class RPGItem {
         placeholders.put(placeholderId, power);
         if (update) {
             rebuild();
+        } else {
+            rebuildPowerIndex();
         }
     }
 
@@ -1545,6 +1722,8 @@ public class RPGItem {
         placeholders.put(placeholderId, condition);
         if (update) {
             rebuild();
+        } else {
+            rebuildPowerIndex();
         }
     }
 
@@ -1646,15 +1825,40 @@ public class RPGItem {
     }
 
     private <TEvent extends Event, T extends Pimpl, TResult, TReturn> List<T> getPower(Trigger<TEvent, T, TResult, TReturn> trigger, Player player, ItemStack stack) {
-        return powers.stream()
-                .filter(p -> p.getTriggers().contains(trigger))
-                .map(p -> {
-                    Class<? extends Power> cls = p.getClass();
-                    Power proxy = Interceptor.create(p, player, stack, trigger);
-                    return PowerManager.createImpl(cls, proxy);
-                })
-                .map(p -> p.cast(trigger.getPowerClass()))
-                .collect(Collectors.toList());
+        Power[] bound = powerIndex.get(trigger);
+        if (bound == null) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>(bound.length);
+        // proxies only exist to apply modifiers
+        boolean modified = hasModifiers(player, stack);
+        for (Power p : bound) {
+            Class<? extends Power> cls = p.getClass();
+            Pimpl impl = modified
+                    ? PowerManager.createImpl(cls, Interceptor.create(p, player, stack, trigger))
+                    : impls.computeIfAbsent(p, power -> PowerManager.createImpl(cls, power));
+            result.add(impl.cast(trigger.getPowerClass()));
+        }
+        return result;
+    }
+
+    /**
+     * @param trigger Trigger to look up
+     * @return The powers bound to the trigger if all of them are {@link IntervalTick} powers, otherwise null
+     */
+    @SuppressWarnings("rawtypes")
+    public Power[] getScheduledPowers(Trigger trigger) {
+        if (trigger.getBase() == null && customTriggerIndex.containsKey(trigger.getClass())) return null;
+        return scheduledPowers.get(trigger);
+    }
+
+    /**
+     * @param trigger Trigger to look up
+     * @return Whether any power of this item is bound to the trigger, or to a custom trigger based on it
+     */
+    @SuppressWarnings("rawtypes")
+    public boolean hasPower(Trigger trigger) {
+        return powerIndex.containsKey(trigger) || (trigger.getBase() == null && customTriggerIndex.containsKey(trigger.getClass()));
     }
 
     public PlaceholderHolder getPlaceholderHolder(String placeholderId) {
@@ -1757,6 +1961,7 @@ public class RPGItem {
             }
         });
 
+        rebuild();
         ItemManager.save(this);
     }
 
@@ -1826,6 +2031,13 @@ public class RPGItem {
 
     public void addTrigger(String name, Trigger trigger) {
         triggers.put(name, trigger);
+        rebuildCustomTriggerIndex();
+    }
+
+    public Trigger removeTrigger(String name) {
+        Trigger removed = triggers.remove(name);
+        rebuildCustomTriggerIndex();
+        return removed;
     }
 
     public List<Condition<?>> getConditions() {
@@ -2116,7 +2328,7 @@ public class RPGItem {
     }
 
     public Map<String, Trigger> getTriggers() {
-        return triggers;
+        return Collections.unmodifiableMap(triggers);
     }
 
     public NamespacedKey getPropertyHolderKey(PropertyHolder power) {
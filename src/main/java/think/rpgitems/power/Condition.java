@@ -14,6 +14,14 @@ public interface Condition<T> extends PropertyHolder, PlaceholderHolder, TagHold
 
     boolean isCritical();
 
+    /**
+     * @return Whether a dynamic result of this condition may be shared by the powers checked in the same dispatch
+     * until one of them fires. Only conditions whose result cannot change in between should opt in.
+     */
+    default boolean isMemoizable() {
+        return false;
+    }
+
     PowerResult<T> check(Player player, ItemStack stack, Map<PropertyHolder, PowerResult<?>> context);
 
     Set<String> getConditions();
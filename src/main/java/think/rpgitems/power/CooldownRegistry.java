@@ -0,0 +1,148 @@
+package think.rpgitems.power;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.bukkit.entity.Player;
+import think.rpgitems.data.Context;
+import think.rpgitems.power.proxy.Interceptor;
+
+import java.util.*;
+
+/**
+ * Cooldowns of all players, kept as {@link Context#getCurrentMillis()} deadlines in primitive arrays.
+ * <p>
+ * Cooldown keys are interned to integer ids, and every online player owns a row of deadlines indexed by key id.
+ * When a player quits the running cooldowns are parked and given back to the player on the next login.
+ */
+public final class CooldownRegistry {
+    private static final CooldownRegistry instance = new CooldownRegistry();
+
+    private final Map<String, Integer> keyIds = new HashMap<>();
+    private final LoadingCache<Power, Integer> powerKeyIds = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(power -> keyOf("cooldown." + power.getItem().getUid() + "." + power.getNamespacedKey())));
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<UUID, long[]> parked = new HashMap<>();
+    private long[][] deadlines = new long[16][];
+
+    private CooldownRegistry() {
+    }
+
+    public static CooldownRegistry instance() {
+        return instance;
+    }
+
+    /**
+     * @return Id of a cooldown key, stable for the lifetime of the server
+     */
+    public int keyOf(String key) {
+        return keyIds.computeIfAbsent(key, k -> keyIds.size());
+    }
+
+    /**
+     * @return Id of the cooldown shared by powers of the same type on an item
+     */
+    public int keyOf(Power power) {
+        return powerKeyIds.getUnchecked(Interceptor.unwrap(power));
+    }
+
+    /**
+     * @return Milliseconds until the cooldown ends, 0 if it is not running
+     */
+    public long getRemainingMillis(UUID player, int key) {
+        Integer slot = slots.get(player);
+        if (slot == null) return 0;
+        long[] row = deadlines[slot];
+        if (key >= row.length) return 0;
+        return Math.max(0, row[key] - Context.getCurrentMillis());
+    }
+
+    public long getRemainingMillis(Player player, Power power) {
+        return getRemainingMillis(player.getUniqueId(), keyOf(power));
+    }
+
+    public long getRemainingMillis(Player player, String key) {
+        return getRemainingMillis(player.getUniqueId(), keyOf(key));
+    }
+
+    /**
+     * Starts the cooldown if it is not running
+     *
+     * @return 0 if the cooldown was started, otherwise the milliseconds until it ends
+     */
+    public long tryStart(UUID player, int key, long cooldownMillis) {
+        long[] row = row(player, key);
+        long now = Context.getCurrentMillis();
+        if (row[key] > now) {
+            return row[key] - now;
+        }
+        row[key] = now + cooldownMillis;
+        return 0;
+    }
+
+    public void set(UUID player, int key, long cooldownMillis) {
+        row(player, key)[key] = Context.getCurrentMillis() + cooldownMillis;
+    }
+
+    public void reset(UUID player, int key) {
+        Integer slot = slots.get(player);
+        if (slot != null && key < deadlines[slot].length) {
+            deadlines[slot][key] = 0;
+        }
+    }
+
+    private long[] row(UUID player, int key) {
+        int slot = slots.computeIfAbsent(player, this::assignSlot);
+        long[] row = deadlines[slot];
+        if (key >= row.length) {
+            row = Arrays.copyOf(row, Math.max(key + 1, row.length * 2));
+            deadlines[slot] = row;
+        }
+        return row;
+    }
+
+    private int assignSlot(UUID player) {
+        Integer slot = freeSlots.poll();
+        if (slot == null) {
+            slot = slots.size();
+            if (slot >= deadlines.length) {
+                deadlines = Arrays.copyOf(deadlines, deadlines.length * 2);
+            }
+        }
+        long[] restored = parked.remove(player);
+        deadlines[slot] = restored != null ? restored : new long[Math.max(16, keyIds.size())];
+        return slot;
+    }
+
+    /**
+     * Frees the slot of a player, keeping the cooldowns still running for the next login
+     */
+    public void release(UUID player) {
+        Integer slot = slots.remove(player);
+        if (slot == null) return;
+        long[] row = deadlines[slot];
+        deadlines[slot] = null;
+        freeSlots.push(slot);
+        long now = Context.getCurrentMillis();
+        parked.values().removeIf(r -> !isRunning(r, now));
+        if (isRunning(row, now)) {
+            parked.put(player, row);
+        }
+    }
+
+    private static boolean isRunning(long[] row, long now) {
+        for (long deadline : row) {
+            if (deadline > now) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of cooldown rows, including the ones parked for offline players
+     */
+    public int size() {
+        return slots.size() + parked.size();
+    }
+}
@@ -0,0 +1,168 @@
+package think.rpgitems.power;
+
+import com.destroystokyo.paper.event.player.PlayerArmorChangeEvent;
+import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.*;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import think.rpgitems.item.ItemManager;
+import think.rpgitems.item.RPGItem;
+import think.rpgitems.power.trigger.BaseTriggers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * RPG items worn or held by a player, resolved again only when an inventory event marks them dirty
+ * and at least {@link #RESYNC_INTERVAL} ticks apart as a fallback for changes no event reports
+ */
+public class EquipmentSnapshot {
+    /**
+     * Armour slots in {@link PlayerInventory#getArmorContents()} order, then main hand and off hand
+     */
+    static final EquipmentSlot[] SLOTS = {EquipmentSlot.FEET, EquipmentSlot.LEGS, EquipmentSlot.CHEST, EquipmentSlot.HEAD, EquipmentSlot.HAND, EquipmentSlot.OFF_HAND};
+    static final int OFF_HAND = 5;
+    private static final int RESYNC_INTERVAL = 20;
+    private static final Map<UUID, EquipmentSnapshot> snapshots = new HashMap<>();
+
+    private final RPGItem[] items = new RPGItem[SLOTS.length];
+    private final Material[] types = new Material[SLOTS.length];
+    private boolean dirty = true;
+    private boolean ticking;
+    private long resolvedAt;
+
+    public static EquipmentSnapshot of(Player player) {
+        return snapshots.computeIfAbsent(player.getUniqueId(), k -> new EquipmentSnapshot());
+    }
+
+    public static void markDirty(HumanEntity player) {
+        EquipmentSnapshot snapshot = snapshots.get(player.getUniqueId());
+        if (snapshot != null) {
+            snapshot.dirty = true;
+        }
+        TriggerSlotIndex.markDirty(player);
+    }
+
+    public static void remove(UUID uuid) {
+        snapshots.remove(uuid);
+    }
+
+    public static int size() {
+        return snapshots.size();
+    }
+
+    /**
+     * Brings the snapshot up to date if needed
+     *
+     * @return Whether any item in the snapshot has powers run by the ticker
+     */
+    boolean refresh(Player player, long tick) {
+        if (dirty || tick - resolvedAt >= RESYNC_INTERVAL || (ticking && isStale(player.getInventory()))) {
+            resolve(player.getInventory(), tick);
+        }
+        return ticking;
+    }
+
+    RPGItem getItem(int slot) {
+        return items[slot];
+    }
+
+    /**
+     * Cheap check run every tick, reading no item meta. An RPG item swapped for another of the same material
+     * without an event is left to the next resync.
+     */
+    private boolean isStale(PlayerInventory inventory) {
+        for (int i = 0; i < SLOTS.length; i++) {
+            if (inventory.getItem(SLOTS[i]).getType() != types[i]) return true;
+            RPGItem item = items[i];
+            if (item != null && ItemManager.getItem(item.getUid()).orElse(null) != item) return true;
+        }
+        return false;
+    }
+
+    private void resolve(PlayerInventory inventory, long tick) {
+        boolean ticking = false;
+        for (int i = 0; i < SLOTS.length; i++) {
+            ItemStack stack = inventory.getItem(SLOTS[i]);
+            RPGItem item = ItemManager.toRPGItem(stack).orElse(null);
+            types[i] = stack.getType();
+            items[i] = item;
+            if (item != null) {
+                ticking |= item.hasPower(i == OFF_HAND ? BaseTriggers.TICK_OFFHAND : BaseTriggers.TICK) || item.hasPower(BaseTriggers.SNEAKING);
+            }
+        }
+        this.ticking = ticking;
+        dirty = false;
+        resolvedAt = tick;
+    }
+
+    public static class EventListener implements Listener {
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onJoin(PlayerJoinEvent e) {
+            markDirty(e.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onRespawn(PlayerRespawnEvent e) {
+            markDirty(e.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onItemHeld(PlayerItemHeldEvent e) {
+            markDirty(e.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onSwapHand(PlayerSwapHandItemsEvent e) {
+            markDirty(e.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onArmorChange(PlayerArmorChangeEvent e) {
+            markDirty(e.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onItemBreak(PlayerItemBreakEvent e) {
+            markDirty(e.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onDrop(PlayerDropItemEvent e) {
+            markDirty(e.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPickup(EntityPickupItemEvent e) {
+            if (e.getEntity() instanceof Player player) {
+                markDirty(player);
+            }
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onInventoryClick(InventoryClickEvent e) {
+            markDirty(e.getWhoClicked());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onInventoryDrag(InventoryDragEvent e) {
+            markDirty(e.getWhoClicked());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onInventoryClose(InventoryCloseEvent e) {
+            markDirty(e.getPlayer());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package think.rpgitems.power;
+
+/**
+ * Power that only has work to do every {@link #getInterval()} ticks when fired by {@link Ticker}
+ *
+ * @see TickScheduler
+ */
+public interface IntervalTick {
+    /**
+     * @return Ticks between two runs for one player, 0 or less to run every tick
+     */
+    int getInterval();
+}
@@ -13,10 +13,14 @@ import think.rpgitems.RPGItems;
 import think.rpgitems.power.propertymodifier.Modifier;
 
 import javax.annotation.CheckForNull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -30,7 +34,16 @@ import java.util.stream.Stream;
 @SuppressWarnings("unchecked")
 public class PowerManager {
     static final HashBasedTable<Class<? extends Pimpl>, Class<? extends Pimpl>, Function> adapters = HashBasedTable.create();
+    /**
+     * Adapter to use for each (power class, specified interface), resolved from {@link #adapters}
+     */
+    private static final HashBasedTable<Class<? extends Power>, Class<? extends Pimpl>, Function> resolvedAdapters = HashBasedTable.create();
     private static final Map<Class<? extends PropertyHolder>, Map<String, Pair<Method, PropertyInstance>>> properties = new HashMap<>();
+    private static final Map<Class<? extends PropertyHolder>, Map<Method, PropertyInstance>> getters = new HashMap<>();
+    private static final Map<Class<? extends PropertyHolder>, Map<Method, MethodHandle>> methodHandles = new ConcurrentHashMap<>();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final Map<Class<? extends Power>, MethodHandle> implFactories = new ConcurrentHashMap<>();
+    private static final MethodType IMPL_FACTORY_TYPE = MethodType.methodType(Pimpl.class, Power.class);
     private static final Map<Class<? extends PropertyHolder>, Meta> metas = new HashMap<>();
     private static final Map<String, Plugin> extensions = new HashMap<>();
     private static final HashBasedTable<Plugin, String, BiFunction<NamespacedKey, String, String>> descriptionResolvers = HashBasedTable.create();
@@ -47,6 +60,9 @@ public class PowerManager {
 
     public static void clear() {
         properties.clear();
+        getters.clear();
+        methodHandles.clear();
+        implFactories.clear();
         metas.clear();
         extensions.clear();
         extensions.put("rpgitems", RPGItems.plugin);
@@ -57,6 +73,7 @@ public class PowerManager {
         modifiers.clear();
         descriptionResolvers.clear();
         adapters.clear();
+        resolvedAdapters.clear();
         overrides.clear();
         keyCache.clear();
     }
@@ -70,6 +87,8 @@ public class PowerManager {
             if (key != null) {
                 all.put(key, clazz);
                 powers.put(key, clazz);
+                resolveImplFactory(clazz);
+                resolveAdapters(clazz);
             } else {
                 return;
             }
@@ -85,6 +104,8 @@ public class PowerManager {
                 all.remove(key, clazz);
                 metas.remove(clazz);
                 properties.remove(clazz);
+                getters.remove(clazz);
+                resolvedAdapters.row(clazz).clear();
             }
         }
     }
@@ -104,6 +125,7 @@ public class PowerManager {
             RPGItems.plugin.getLogger().log(Level.WARNING, "With {0}", clazz);
             metas.remove(clazz);
             properties.remove(clazz);
+            getters.remove(clazz);
             if (key != null) {
                 all.remove(key, clazz);
                 registry.remove(key, clazz);
@@ -115,6 +137,9 @@ public class PowerManager {
         metas.put(clazz, clazz.getAnnotation(Meta.class));
         Map<String, Pair<Method, PropertyInstance>> propertyMap = scanProperties(clazz);
         properties.put(clazz, propertyMap);
+        Map<Method, PropertyInstance> getterMap = new HashMap<>();
+        propertyMap.values().stream().filter(p -> p.getKey() != null).forEach(p -> getterMap.put(p.getKey(), p.getValue()));
+        getters.put(clazz, Collections.unmodifiableMap(getterMap));
     }
 
     @SuppressWarnings("rawtypes")
@@ -305,6 +330,30 @@ public class PowerManager {
         return getProperties(all.get(key));
     }
 
+    /**
+     * @return Properties of the class mapped by theirs getter
+     */
+    public static Map<Method, PropertyInstance> getGetters(Class<? extends PropertyHolder> cls) {
+        return getters.getOrDefault(cls, Collections.emptyMap());
+    }
+
+    /**
+     * Resolves {@code method} of {@code cls} once, as a handle of type {@code (Object, Object[])Object}
+     *
+     * @param lookup Lookup with access to {@code cls}, used on first resolution
+     */
+    public static MethodHandle getMethodHandle(Class<? extends PropertyHolder> cls, Method method, MethodHandles.Lookup lookup) throws IllegalAccessException {
+        Map<Method, MethodHandle> handles = methodHandles.computeIfAbsent(cls, c -> new ConcurrentHashMap<>());
+        MethodHandle handle = handles.get(method);
+        if (handle == null) {
+            handle = lookup.unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+            handles.put(method, handle);
+        }
+        return handle;
+    }
+
     @CheckForNull
     public static Class<? extends Power> getPower(NamespacedKey key) {
         return powers.get(overrides.computeIfAbsent(key, Function.identity()));
@@ -365,19 +414,38 @@ public class PowerManager {
 
     public static <G extends Pimpl, S extends Pimpl> void registerAdapter(Class<G> general, Class<S> specified, Function<G, S> adapter) {
         adapters.put(general, specified, adapter);
+        powers.values().forEach(PowerManager::resolveAdapters);
     }
 
-    public static <T extends Pimpl> T adaptPower(Pimpl pimpl, Class<T> specified) {
-        List<Class<? extends Pimpl>> generals = Arrays.asList(getMeta(pimpl.getPower().getNamespacedKey()).generalInterface());
-        Set<Class<? extends Pimpl>> statics = Power.getStaticInterfaces(pimpl.getClass());
-        List<Class<? extends Pimpl>> preferences = generals.stream().filter(statics::contains).collect(Collectors.toList());
+    /**
+     * Picks the adapter for each interface the power can be adapted to,
+     * preferring the general interfaces in the order declared by its {@link Meta}
+     */
+    private static void resolveAdapters(Class<? extends Power> cls) {
+        resolvedAdapters.row(cls).clear();
+        Meta meta = getMeta(cls);
+        if (meta == null || meta.implClass().equals(Pimpl.class)) return;
+        Set<Class<? extends Pimpl>> statics = Power.getStaticInterfaces(meta.implClass());
+        for (Class<? extends Pimpl> general : meta.generalInterface()) {
+            if (!statics.contains(general)) continue;
+            adapters.row(general).forEach((specified, adapter) -> {
+                if (!resolvedAdapters.contains(cls, specified)) {
+                    resolvedAdapters.put(cls, specified, adapter);
+                }
+            });
+        }
+    }
 
-        for (Class<? extends Pimpl> general : preferences) {
-            if (adapters.contains(general, specified)) {
-                return (T) adapters.get(general, specified).apply(pimpl);
-            }
+    public static <T extends Pimpl> T adaptPower(Pimpl pimpl, Class<T> specified) {
+        Class<? extends Power> cls = Power.getUserClass(pimpl.getPower().getClass());
+        if (!resolvedAdapters.containsRow(cls)) {
+            resolveAdapters(cls);
         }
-        throw new ClassCastException();
+        Function adapter = resolvedAdapters.get(cls, specified);
+        if (adapter == null) {
+            throw new ClassCastException();
+        }
+        return (T) adapter.apply(pimpl);
     }
 
     public static void registerOverride(NamespacedKey origin, NamespacedKey override) {
@@ -398,14 +466,40 @@ public class PowerManager {
         overrides.put(origin, override);
     }
 
+    /**
+     * Resolves the constructor of the power's {@link Meta#implClass()} once, as a handle of type {@code (Power)Pimpl}
+     *
+     * @return the factory, or null if the power has no usable impl class
+     */
+    private static MethodHandle resolveImplFactory(Class<? extends Power> cls) {
+        Meta meta = getMeta(cls);
+        if (meta == null || meta.implClass().equals(Pimpl.class)) return null;
+        Class<? extends Pimpl> pimpl = meta.implClass();
+        try {
+            MethodHandle factory = MethodHandles.lookup().unreflectConstructor(pimpl.getConstructor(cls)).asType(IMPL_FACTORY_TYPE);
+            implFactories.put(cls, factory);
+            return factory;
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            RPGItems.logger.log(Level.SEVERE, "Invalid impl: " + pimpl + " for " + cls, e);
+            return null;
+        }
+    }
+
     public static Pimpl createImpl(Class<? extends Power> cls, Power p) {
         if (!cls.isInstance(p)) throw new IllegalArgumentException();
-        Class<? extends Pimpl> pimpl = getMeta(cls).implClass();
-        if (pimpl.equals(Pimpl.class)) throw new IllegalStateException();
+        MethodHandle factory = implFactories.get(cls);
+        if (factory == null) {
+            factory = resolveImplFactory(cls);
+            if (factory == null) {
+                if (getMeta(cls).implClass().equals(Pimpl.class)) throw new IllegalStateException();
+                throw new RuntimeException("Invalid impl for " + cls);
+            }
+        }
         try {
-            return pimpl.getConstructor(cls).newInstance(p);
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            RPGItems.logger.log(Level.SEVERE, "Invalid impl: " + pimpl + " for " + cls, e);
+            return (Pimpl) factory.invokeExact(p);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new RuntimeException(e);
         }
     }
@@ -0,0 +1,99 @@
+package think.rpgitems.power;
+
+import org.bukkit.entity.Player;
+import think.rpgitems.power.proxy.Interceptor;
+
+import java.util.*;
+
+/**
+ * Timing wheel deciding when {@link IntervalTick} powers are due for a player.
+ * <p>
+ * A power becomes due again {@link IntervalTick#getInterval()} ticks after it last ran,
+ * and only the wheel bucket of the current tick is visited to find the powers that became due.
+ */
+public final class TickScheduler {
+    private static final int WHEEL_SIZE = 256;
+    private static final TickScheduler instance = new TickScheduler();
+
+    private final List<List<Entry>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final Map<UUID, Map<Power, Entry>> entries = new HashMap<>();
+    private long tick;
+
+    private TickScheduler() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    public static TickScheduler instance() {
+        return instance;
+    }
+
+    /**
+     * Moves to the next tick, marking the powers whose interval ended as due
+     */
+    void advance() {
+        List<Entry> bucket = wheel.get((int) (++tick % WHEEL_SIZE));
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            Entry entry = bucket.get(i);
+            if (entry.removed || entry.next <= tick) {
+                entry.due = !entry.removed;
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Claims a run of the power for the player, to be called by the power's tick implementation
+     *
+     * @param interval Ticks until the next run, 0 or less to run every tick
+     * @return Whether the power is due and should do its work
+     */
+    public boolean tryRun(Player player, Power power, int interval) {
+        if (interval <= 0) return true;
+        Entry entry = entries.computeIfAbsent(player.getUniqueId(), k -> new IdentityHashMap<>())
+                             .computeIfAbsent(Interceptor.unwrap(power), k -> new Entry());
+        if (!entry.due) return false;
+        entry.due = false;
+        entry.next = tick + interval;
+        wheel.get((int) (entry.next % WHEEL_SIZE)).add(entry);
+        return true;
+    }
+
+    /**
+     * @param powers Powers making up everything bound to a trigger, see {@link think.rpgitems.item.RPGItem#getScheduledPowers}
+     * @return Whether none of the powers is due, so firing the trigger would do nothing
+     */
+    public boolean isIdle(Player player, Power[] powers) {
+        if (powers == null) return false;
+        Map<Power, Entry> playerEntries = entries.get(player.getUniqueId());
+        if (playerEntries == null) return false;
+        for (Power power : powers) {
+            Entry entry = playerEntries.get(power);
+            if (entry == null || entry.due) return false;
+        }
+        return true;
+    }
+
+    public void remove(UUID uuid) {
+        Map<Power, Entry> removed = entries.remove(uuid);
+        if (removed != null) {
+            removed.values().forEach(entry -> entry.removed = true);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<Power, Entry> playerEntries : entries.values()) {
+            size += playerEntries.size();
+        }
+        return size;
+    }
+
+    private static final class Entry {
+        private boolean due = true;
+        private boolean removed;
+        private long next;
+    }
+}
@@ -4,53 +4,135 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.scheduler.BukkitRunnable;
+import think.rpgitems.Configuration;
+import think.rpgitems.RPGItems;
 import think.rpgitems.data.Context;
 import think.rpgitems.item.ItemManager;
 import think.rpgitems.item.RPGItem;
 import think.rpgitems.power.trigger.BaseTriggers;
+import think.rpgitems.power.trigger.Trigger;
+import think.rpgitems.utils.LivingEntityIndex;
 
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * BukkitRunnable that runs {@link PowerTick#tick(Player, ItemStack)}
+ * <p>
+ * Players can be split into shards visited on consecutive ticks, and the work done per tick can be capped by a time budget.
+ * Players not reached within the budget are carried over to the next tick.
  */
 public class Ticker extends BukkitRunnable {
+    private static final int REPORTED_DISPATCHES = 5;
+
+    private final Set<Player> pending = new LinkedHashSet<>();
+    private final Map<Dispatch, long[]> dispatchNanos = new HashMap<>();
+    private long ticks;
+    private long lastReport;
+    private int overrunTicks;
+    private long maxTickNanos;
+    private int maxDeferred;
 
     @Override
     public void run() {
         Context.instance().cleanTick();
+        ItemManager.clearIdentities();
+        LivingEntityIndex.clear();
+        TickScheduler scheduler = TickScheduler.instance();
+        scheduler.advance();
+        long tick = ticks++;
+        Configuration cfg = RPGItems.plugin.cfg;
+        int shards = Math.max(1, cfg.tickerShards);
+        long budget = cfg.tickerBudgetMicros * 1000L;
+        boolean profile = budget > 0;
+
         for (final Player player : Bukkit.getOnlinePlayers()) {
-            if (ItemManager.canUse(player, null, false) == Event.Result.DENY) continue;
-            ItemStack[] armour = player.getInventory().getArmorContents();
-            for (ItemStack part : armour) {
-                Optional<RPGItem> item = ItemManager.toRPGItem(part);
-                if (!item.isPresent())
-                    continue;
-                RPGItem rgi = item.get();
-                rgi.power(player, part, null, BaseTriggers.TICK);
-                if (player.isSneaking()) {
-                    rgi.power(player, part, null, BaseTriggers.SNEAKING);
-                }
+            if (shards == 1 || Math.floorMod(player.getEntityId(), shards) == tick % shards) {
+                pending.add(player);
             }
-            ItemStack itemInMainHand = player.getInventory().getItemInMainHand();
-            ItemStack itemInOffHand = player.getInventory().getItemInOffHand();
-            Optional<RPGItem> offhand = ItemManager.toRPGItem(itemInOffHand);
-            Optional<RPGItem> mainhand = ItemManager.toRPGItem(itemInMainHand);
-            if (mainhand.isPresent()) {
-                mainhand.get().power(player, itemInMainHand, null, BaseTriggers.TICK);
-
-                if (player.isSneaking()) {
-                    mainhand.get().power(player, itemInMainHand, null, BaseTriggers.SNEAKING);
-                }
+        }
+        long start = System.nanoTime();
+        Iterator<Player> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Player player = iterator.next();
+            iterator.remove();
+            if (player.isOnline()) {
+                tickPlayer(scheduler, player, tick, profile);
+            }
+            if (profile && System.nanoTime() - start > budget) break;
+        }
+        if (profile) {
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > budget) {
+                overrunTicks++;
+                maxTickNanos = Math.max(maxTickNanos, elapsed);
+                maxDeferred = Math.max(maxDeferred, pending.size());
             }
-            if (offhand.isPresent()) {
-                offhand.get().power(player, itemInOffHand, null, BaseTriggers.TICK_OFFHAND);
-                if (player.isSneaking()) {
-                    offhand.get().power(player, itemInOffHand, null, BaseTriggers.SNEAKING);
-                }
+            if (cfg.tickerReportInterval > 0 && tick - lastReport >= cfg.tickerReportInterval * 20L) {
+                report(tick, budget);
+            }
+        }
+    }
+
+    private void tickPlayer(TickScheduler scheduler, Player player, long tick, boolean profile) {
+        EquipmentSnapshot snapshot = EquipmentSnapshot.of(player);
+        if (!snapshot.refresh(player, tick)) return;
+        if (ItemManager.canUse(player, null, false) == Event.Result.DENY) return;
+        PlayerInventory inventory = player.getInventory();
+        boolean sneaking = player.isSneaking();
+        for (int slot = 0; slot < EquipmentSnapshot.SLOTS.length; slot++) {
+            RPGItem rgi = snapshot.getItem(slot);
+            if (rgi == null)
+                continue;
+            ItemStack stack = inventory.getItem(EquipmentSnapshot.SLOTS[slot]);
+            Trigger<Event, PowerTick, Void, Void> trigger = slot == EquipmentSnapshot.OFF_HAND ? BaseTriggers.TICK_OFFHAND : BaseTriggers.TICK;
+            fire(scheduler, player, rgi, stack, trigger, profile);
+            if (sneaking) {
+                fire(scheduler, player, rgi, stack, BaseTriggers.SNEAKING, profile);
             }
         }
     }
 
+    private void fire(TickScheduler scheduler, Player player, RPGItem rgi, ItemStack stack, Trigger<Event, ?, Void, Void> trigger, boolean profile) {
+        if (!rgi.hasPower(trigger) || scheduler.isIdle(player, rgi.getScheduledPowers(trigger))) return;
+        if (!profile) {
+            rgi.power(player, stack, null, trigger);
+            return;
+        }
+        long begin = System.nanoTime();
+        rgi.power(player, stack, null, trigger);
+        long[] nanos = dispatchNanos.computeIfAbsent(new Dispatch(rgi, trigger), k -> new long[1]);
+        nanos[0] += System.nanoTime() - begin;
+    }
+
+    private void report(long tick, long budget) {
+        if (overrunTicks > 0) {
+            String slowest = dispatchNanos.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<Dispatch, long[]> e) -> e.getValue()[0]).reversed())
+                    .limit(REPORTED_DISPATCHES)
+                    .map(e -> e.getKey().describe() + " " + e.getValue()[0] / 1000 + "us")
+                    .collect(Collectors.joining(", "));
+            RPGItems.logger.warning(String.format(
+                    "Ticker exceeded its %dus budget in %d of the last %d ticks (max %dus, up to %d players deferred). Slowest: %s",
+                    budget / 1000, overrunTicks, tick - lastReport, maxTickNanos / 1000, maxDeferred, slowest));
+        }
+        lastReport = tick;
+        overrunTicks = 0;
+        maxTickNanos = 0;
+        maxDeferred = 0;
+        dispatchNanos.clear();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private record Dispatch(RPGItem item, Trigger trigger) {
+        String describe() {
+            String powers = item.getPowers().stream()
+                    .filter(p -> p.getTriggers().contains(trigger))
+                    .map(Power::getName)
+                    .collect(Collectors.joining(","));
+            return item.getName() + "/" + trigger.name() + "[" + powers + "]";
+        }
+    }
 }
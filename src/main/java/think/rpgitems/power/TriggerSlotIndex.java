@@ -0,0 +1,87 @@
+package think.rpgitems.power;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import think.rpgitems.item.ItemManager;
+import think.rpgitems.item.RPGItem;
+import think.rpgitems.power.trigger.BaseTriggers;
+import think.rpgitems.power.trigger.Trigger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Inventory slots of a player holding RPG items with powers for the triggers fired from anywhere in the inventory.
+ * <p>
+ * Like {@link EquipmentSnapshot}, the index is rebuilt only after an inventory event marks it dirty,
+ * and at least {@link #RESYNC_INTERVAL} ticks apart for changes no event reports.
+ * Slot numbers follow {@link org.bukkit.inventory.PlayerInventory#getContents()}.
+ */
+public class TriggerSlotIndex {
+    @SuppressWarnings("rawtypes")
+    private static final Trigger[] TRIGGERS = {BaseTriggers.HIT_TAKEN, BaseTriggers.HURT, BaseTriggers.DYING, BaseTriggers.HIT_GLOBAL};
+    private static final int[] NONE = new int[0];
+    private static final int RESYNC_INTERVAL = 20;
+    private static final Map<UUID, TriggerSlotIndex> indices = new HashMap<>();
+
+    private final int[][] slots = new int[TRIGGERS.length][];
+    private boolean dirty = true;
+    private int resolvedAt;
+
+    public static TriggerSlotIndex of(Player player) {
+        return indices.computeIfAbsent(player.getUniqueId(), k -> new TriggerSlotIndex());
+    }
+
+    public static void markDirty(HumanEntity player) {
+        TriggerSlotIndex index = indices.get(player.getUniqueId());
+        if (index != null) {
+            index.dirty = true;
+        }
+    }
+
+    public static void remove(UUID uuid) {
+        indices.remove(uuid);
+    }
+
+    public static int size() {
+        return indices.size();
+    }
+
+    /**
+     * @return Slots that may hold an RPG item with powers for the trigger, the items there still need to be checked
+     */
+    @SuppressWarnings("rawtypes")
+    public int[] getSlots(Player player, Trigger trigger) {
+        int current = Bukkit.getCurrentTick();
+        if (dirty || current - resolvedAt >= RESYNC_INTERVAL) {
+            resolve(player.getInventory().getContents(), current);
+        }
+        for (int i = 0; i < TRIGGERS.length; i++) {
+            if (TRIGGERS[i] == trigger) return slots[i];
+        }
+        throw new IllegalArgumentException("Trigger " + trigger.name() + " is not indexed");
+    }
+
+    private void resolve(ItemStack[] contents, int tick) {
+        int[][] found = new int[TRIGGERS.length][contents.length];
+        int[] counts = new int[TRIGGERS.length];
+        for (int slot = 0; slot < contents.length; slot++) {
+            RPGItem item = ItemManager.toRPGItem(contents[slot]).orElse(null);
+            if (item == null) continue;
+            for (int i = 0; i < TRIGGERS.length; i++) {
+                if (item.hasPower(TRIGGERS[i])) {
+                    found[i][counts[i]++] = slot;
+                }
+            }
+        }
+        for (int i = 0; i < TRIGGERS.length; i++) {
+            slots[i] = counts[i] == 0 ? NONE : Arrays.copyOf(found[i], counts[i]);
+        }
+        dirty = false;
+        resolvedAt = tick;
+    }
+}
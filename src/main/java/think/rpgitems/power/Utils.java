@@ -184,37 +184,31 @@ public class Utils {
      * @return the boolean
      */
     public static boolean checkCooldown(Power power, Player player, long cdTicks, boolean showWarn, boolean showPower) {
-        return checkAndSetCooldown(power, player, cdTicks, showWarn, showPower, "cooldown." + power.getItem().getUid() + "." + power.getNamespacedKey().toString());
+        return checkAndSetCooldown(power, player, cdTicks, showWarn, showPower, CooldownRegistry.instance().keyOf(power));
     }
 
     public static boolean checkAndSetCooldown(Power power, Player player, long cooldownTick, boolean showWarn, boolean showPower, String key) {
-        long cooldown;
-        Long value = (Long) Context.instance().get(player.getUniqueId(), key);
-        long nowTime = Context.getCurrentMillis();
-        if (value == null) {
-            cooldown = nowTime;
-        } else {
-            cooldown = value;
-        }
-        if (cooldown <= nowTime) {
-            long cd = nowTime + cooldownTick * 50;
-            Context.instance().put(player.getUniqueId(), key, cd, cd);
+        return checkAndSetCooldown(power, player, cooldownTick, showWarn, showPower, CooldownRegistry.instance().keyOf(key));
+    }
+
+    private static boolean checkAndSetCooldown(Power power, Player player, long cooldownTick, boolean showWarn, boolean showPower, int key) {
+        long remaining = CooldownRegistry.instance().tryStart(player.getUniqueId(), key, cooldownTick * 50);
+        if (remaining == 0) {
             return true;
-        } else {
-            if (showWarn) {
-                I18n i18n = I18n.getInstance(player.getLocale());
-                if (showPower) {
-                    String message = i18n.getFormatted("message.cooldown.power", ((double) (cooldown - nowTime)) / 50d / 20d, power.getItem().getDisplayName(), power.getLocalizedName(player));
-                    if (RPGItems.plugin.cfg.showCooldownActionbar) player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message));
-                    else player.sendMessage(message);
-                } else {
-                    String message = i18n.getFormatted("message.cooldown.general", ((double) (cooldown - nowTime)) / 50d / 20d, power.getItem().getDisplayName());
-                    if (RPGItems.plugin.cfg.showCooldownActionbar) player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message));
-                    else player.sendMessage(message);
-                }
+        }
+        if (showWarn) {
+            I18n i18n = I18n.getInstance(player.getLocale());
+            if (showPower) {
+                String message = i18n.getFormatted("message.cooldown.power", ((double) remaining) / 50d / 20d, power.getItem().getDisplayName(), power.getLocalizedName(player));
+                if (RPGItems.plugin.cfg.showCooldownActionbar) player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message));
+                else player.sendMessage(message);
+            } else {
+                String message = i18n.getFormatted("message.cooldown.general", ((double) remaining) / 50d / 20d, power.getItem().getDisplayName());
+                if (RPGItems.plugin.cfg.showCooldownActionbar) player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message));
+                else player.sendMessage(message);
             }
-            return false;
         }
+        return false;
     }
 
     public static void attachPermission(Player player, String permissions) {
@@ -723,6 +717,24 @@ public class Utils {
         };
     }
 
+    /**
+     * String variable evaluating like one set by {@link Expression#setVariable(String, String)},
+     * but without dropping the parsed form of the expression it is set on
+     */
+    public static Expression.LazyNumber lazyString(String value) {
+        return new Expression.LazyNumber() {
+            @Override
+            public BigDecimal eval() {
+                return new Expression(value).eval();
+            }
+
+            @Override
+            public String getString() {
+                return value;
+            }
+        };
+    }
+
     public static LazyFunction scoreBoard(Player player) {
         return new LazyFunction() {
             @Override
@@ -841,8 +853,27 @@ public class Utils {
         };
     }
 
+    private static final String[] ARMOUR_VARIABLES = {
+            "damage", "finalDamage", "isDamageByEntity", "playerYaw", "playerPitch",
+            "playerX", "playerY", "playerZ", "playerLastDamage", "cause"
+    };
+    private static final String[] ARMOUR_ENTITY_VARIABLES = {
+            "damagerType", "isDamageByProjectile", "damagerTicksLived", "distance", "entityType",
+            "entityYaw", "entityPitch", "entityX", "entityY", "entityZ"
+    };
+    private static final Expression.LazyNumber UNBOUND = lazyNumber(() -> 0d);
+    // only evaluated with a player bound in their place
+    private static final LazyFunction UNBOUND_SCOREBOARD = scoreBoard(null);
+    private static final LazyFunction UNBOUND_CONTEXT = context(null);
+
+    /**
+     * Evaluates the armour expression of the item, on the main thread
+     *
+     * @return Damage given by the expression, or the damage unchanged if the item has none
+     */
     public static double eval(Player player, double damage, EntityDamageEvent event, Entity damager, RPGItem rpgItems) {
-        Expression ex = new Expression(rpgItems.getArmourExpression());
+        Expression ex = rpgItems.getCompiledArmourExpression(damager != null);
+        if (ex == null) return damage;
         ex
                 .and("damage", BigDecimal.valueOf(damage))
                 .and("finalDamage", Utils.lazyNumber(event::getFinalDamage))
@@ -853,7 +884,7 @@ public class Utils {
                 .and("playerY", Utils.lazyNumber(() -> player.getLocation().getY()))
                 .and("playerZ", Utils.lazyNumber(() -> player.getLocation().getZ()))
                 .and("playerLastDamage", Utils.lazyNumber(player::getLastDamage))
-                .and("cause", event.getCause().name());
+                .and("cause", Utils.lazyString(event.getCause().name()));
         ex.addLazyFunction(Utils.scoreBoard(player));
         ex.addLazyFunction(Utils.context(player));
         ex.addLazyFunction(Utils.now());
@@ -870,11 +901,11 @@ public class Utils {
             }
             Entity entity = ent;
             ex
-                    .and("damagerType", damager.getType().name())
+                    .and("damagerType", Utils.lazyString(damager.getType().name()))
                     .and("isDamageByProjectile", byProjectile ? BigDecimal.ONE : BigDecimal.ZERO)
                     .and("damagerTicksLived", Utils.lazyNumber(() -> (double) damager.getTicksLived()))
                     .and("distance", Utils.lazyNumber(() -> player.getLocation().distance(entity.getLocation())))
-                    .and("entityType", entity.getType().name())
+                    .and("entityType", Utils.lazyString(entity.getType().name()))
                     .and("entityYaw", Utils.lazyNumber(() -> (double) entity.getLocation().getYaw()))
                     .and("entityPitch", Utils.lazyNumber(() -> (double) entity.getLocation().getPitch()))
                     .and("entityX", Utils.lazyNumber(() -> entity.getLocation().getX()))
@@ -882,8 +913,29 @@ public class Utils {
                     .and("entityZ", Utils.lazyNumber(() -> entity.getLocation().getZ()));
         }
 
-        BigDecimal result = ex.eval();
-        return result.doubleValue();
+        try {
+            BigDecimal result = ex.eval();
+            return result.doubleValue();
+        } finally {
+            unbind(ex, damager != null);
+        }
+    }
+
+    /**
+     * Rebinds the variables and functions of a cached armour expression to placeholders,
+     * so it does not keep the event, player and damager of its last evaluation reachable
+     */
+    private static void unbind(Expression ex, boolean byEntity) {
+        for (String variable : ARMOUR_VARIABLES) {
+            ex.and(variable, UNBOUND);
+        }
+        if (byEntity) {
+            for (String variable : ARMOUR_ENTITY_VARIABLES) {
+                ex.and(variable, UNBOUND);
+            }
+        }
+        ex.addLazyFunction(UNBOUND_SCOREBOARD);
+        ex.addLazyFunction(UNBOUND_CONTEXT);
     }
 
     public static <T extends Weightable> T weightedRandomPick(Collection<T> collection) {
@@ -41,6 +41,11 @@ public class DamageTypeCondition extends BaseCondition<Void> {
         return isCritical;
     }
 
+    @Override
+    public boolean isMemoizable() {
+        return true;
+    }
+
     @Override
     public PowerResult<Void> check(Player player, ItemStack stack, Map<PropertyHolder, PowerResult<?>> context) {
         try {
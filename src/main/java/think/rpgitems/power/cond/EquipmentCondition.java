@@ -57,6 +57,11 @@ public class EquipmentCondition extends BaseCondition<Void> {
         return isCritical;
     }
 
+    @Override
+    public boolean isMemoizable() {
+        return true;
+    }
+
     @Override
     public PowerResult<Void> check(Player player, ItemStack stack, Map<PropertyHolder, PowerResult<?>> context) {
         if (slots.isEmpty()) {
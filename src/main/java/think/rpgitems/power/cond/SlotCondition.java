@@ -51,6 +51,11 @@ public class SlotCondition extends BaseCondition<Void> {
         return critical;
     }
 
+    @Override
+    public boolean isMemoizable() {
+        return true;
+    }
+
     @Override
     public PowerResult<Void> check(Player player, ItemStack stack, Map<PropertyHolder, PowerResult<?>> context) {
 
@@ -72,6 +77,23 @@ public class SlotCondition extends BaseCondition<Void> {
         return "slotcondition";
     }
 
+    public static void release(UUID uuid) {
+        for (Slots slots : Slots.values()) {
+            slots.backpackCache.invalidate(uuid);
+            slots.beltCache.invalidate(uuid);
+        }
+    }
+
+    public static int size() {
+        long size = 0;
+        for (Slots slots : Slots.values()) {
+            slots.backpackCache.cleanUp();
+            slots.beltCache.cleanUp();
+            size += slots.backpackCache.size() + slots.beltCache.size();
+        }
+        return (int) size;
+    }
+
     enum Slots {
         //ARMOR slot
         ARMOR,
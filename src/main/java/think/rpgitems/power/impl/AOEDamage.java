@@ -17,11 +17,11 @@ import org.bukkit.potion.PotionEffectType;
 import org.bukkit.scheduler.BukkitRunnable;
 import think.rpgitems.RPGItems;
 import think.rpgitems.data.Context;
+import think.rpgitems.data.DamageFrame;
 import think.rpgitems.event.BeamEndEvent;
 import think.rpgitems.event.BeamHitBlockEvent;
 import think.rpgitems.event.BeamHitEntityEvent;
 import think.rpgitems.power.*;
-import think.rpgitems.utils.LightContext;
 import think.rpgitems.utils.cast.CastUtils;
 
 import javax.annotation.Nullable;
@@ -281,13 +281,7 @@ public class AOEDamage extends BasePower {
                         continue;
                     }
                     hitEntities++;
-                    LightContext.putTemp(player.getUniqueId(), OVERRIDING_DAMAGE, getDamage());
-                    LightContext.putTemp(player.getUniqueId(), SUPPRESS_MELEE, isSuppressMelee());
-                    LightContext.putTemp(player.getUniqueId(), DAMAGE_SOURCE_ITEM, stack);
-                    e.damage(getDamage(), player);
-                    LightContext.removeTemp(player.getUniqueId(), SUPPRESS_MELEE);
-                    LightContext.removeTemp(player.getUniqueId(), OVERRIDING_DAMAGE);
-                    LightContext.removeTemp(player.getUniqueId(), DAMAGE_SOURCE_ITEM);
+                    DamageFrame.damage(e, player, getNamespacedKey().toString(), getDamage(), isSuppressMelee(), stack);
                 }
             } else {
                 hitEntities++;
@@ -309,13 +303,7 @@ public class AOEDamage extends BasePower {
                                 c++;
                                 continue;
                             }
-                            LightContext.putTemp(player.getUniqueId(), OVERRIDING_DAMAGE, getDamage());
-                            LightContext.putTemp(player.getUniqueId(), SUPPRESS_MELEE, isSuppressMelee());
-                            LightContext.putTemp(player.getUniqueId(), DAMAGE_SOURCE_ITEM, stack);
-                            e.damage(getDamage(), player);
-                            LightContext.removeTemp(player.getUniqueId(), SUPPRESS_MELEE);
-                            LightContext.removeTemp(player.getUniqueId(), OVERRIDING_DAMAGE);
-                            LightContext.removeTemp(player.getUniqueId(), DAMAGE_SOURCE_ITEM);
+                            DamageFrame.damage(e, player, getNamespacedKey().toString(), getDamage(), isSuppressMelee(), stack);
                         }
                     }
                 }).runTaskLater(RPGItems.plugin, getDelay());
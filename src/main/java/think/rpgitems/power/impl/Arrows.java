@@ -7,6 +7,7 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 import think.rpgitems.Events;
 import think.rpgitems.I18n;
+import think.rpgitems.data.LaunchContext;
 import think.rpgitems.power.*;
 
 import static think.rpgitems.power.Utils.checkCooldown;
@@ -62,8 +63,7 @@ public class Arrows extends BasePower {
             if (!checkCooldown(getPower(), player, getCooldown(), true, true)) return PowerResult.cd();
             if (!getItem().consumeDurability(stack, getCost())) return PowerResult.cost();
             player.playSound(player.getLocation(), Sound.ENTITY_ARROW_SHOOT, 1.0f, 1.0f);
-            Events.registerRPGProjectile(getPower().getItem(), stack, player);
-            Arrow arrow = player.launchProjectile(org.bukkit.entity.Arrow.class);
+            Arrow arrow = LaunchContext.launch(getPower().getItem(), stack, player, org.bukkit.entity.Arrow.class);
             arrow.setPickupStatus(org.bukkit.entity.Arrow.PickupStatus.DISALLOWED);
             Events.autoRemoveProjectile(arrow.getEntityId());
             arrow.setPersistent(false);
@@ -23,11 +23,12 @@ import org.bukkit.util.BoundingBox;
 import org.bukkit.util.RayTraceResult;
 import org.bukkit.util.Vector;
 import think.rpgitems.RPGItems;
+import think.rpgitems.data.DamageFrame;
 import think.rpgitems.event.BeamEndEvent;
 import think.rpgitems.event.BeamHitBlockEvent;
 import think.rpgitems.event.BeamHitEntityEvent;
 import think.rpgitems.power.*;
-import think.rpgitems.utils.LightContext;
+import think.rpgitems.utils.LivingEntityIndex;
 import think.rpgitems.utils.cast.CastUtils;
 import think.rpgitems.utils.cast.RangedDoubleValue;
 import think.rpgitems.utils.cast.RangedValueSerializer;
@@ -566,6 +567,7 @@ public class Beam extends BasePower {
         AtomicInteger currentTick = new AtomicInteger(0);
         Vector gravityVector = new Vector(0, 0, 0);
         Location lastLocation;
+        Location lastHitTest;
         boolean bounced = false;
         World world;
         Set<UUID> hitMob = new HashSet<>();
@@ -799,42 +801,28 @@ public class Beam extends BasePower {
 
         private Collection<? extends UUID> tryHit(Entity from, Location loc, ItemStack stack, boolean canHitSelf, Set<UUID> hitMob) {
             HashSet<UUID> hitMobs = new HashSet<>();
+            // sweep the particle box along the step taken since the last test, so thin entities are not stepped over
+            Location sweptFrom = lastHitTest != null && lastHitTest.getWorld() == loc.getWorld() ? lastHitTest : loc;
+            lastHitTest = loc;
             if (from == null || this.effectOnly) return hitMobs;
             double offsetLength = new Vector(offsetX, offsetY, offsetZ).length();
             double length = Double.isNaN(offsetLength) ? 0.1 : Math.max(offsetLength, 10);
-            Collection<Entity> candidates = from.getWorld().getNearbyEntities(loc, length, length, length);
-            List<Entity> collect = candidates.stream()
-                    .filter(entity -> (entity instanceof LivingEntity) && (!isUtilArmorStand(entity)) && (canHitSelf || !entity.equals(from)) && !entity.isDead() && !hitMob.contains(entity.getUniqueId()))
-                    .filter(entity -> canHit(loc, entity))
-                    .limit(Math.max(pierce, 1))
-                    .collect(Collectors.toList());
-            if (!collect.isEmpty()) {
-                Entity entity = collect.get(0);
-                if (entity instanceof LivingEntity) {
-                    BeamHitEntityEvent beamHitEntityEvent = new BeamHitEntityEvent(player, from, ((LivingEntity) entity), stack, damage, loc, getBoundingBox(loc), towards.clone().normalize().multiply(getNextLength(spawnedLength, length * 20)), triggerDepth);
-                    Bukkit.getPluginManager().callEvent(beamHitEntityEvent);
-                    double damage = beamHitEntityEvent.getDamage();
-                    if (damage > 0) {
-                        LightContext.putTemp(from.getUniqueId(), DAMAGE_SOURCE, power.getNamespacedKey().toString());
-                        LightContext.putTemp(from.getUniqueId(), OVERRIDING_DAMAGE, damage);
-                        LightContext.putTemp(from.getUniqueId(), SUPPRESS_MELEE, suppressMelee);
-                        LightContext.putTemp(from.getUniqueId(), DAMAGE_SOURCE_ITEM, stack);
-                        ((LivingEntity) entity).damage(damage, from);
-                        LightContext.clear();
-                    }
-                    hitMobs.add(entity.getUniqueId());
+            BoundingBox particleBox = getBoundingBox(loc);
+            LivingEntity entity = LivingEntityIndex.of(loc.getWorld()).sweep(sweptFrom.toVector(), loc.toVector(),
+                    particleBox.getWidthX() / 2, particleBox.getHeight() / 2, particleBox.getWidthZ() / 2,
+                    e -> !isUtilArmorStand(e) && (canHitSelf || !e.equals(from)) && !e.isDead() && !hitMob.contains(e.getUniqueId()));
+            if (entity != null) {
+                BeamHitEntityEvent beamHitEntityEvent = new BeamHitEntityEvent(player, from, entity, stack, damage, loc, particleBox, towards.clone().normalize().multiply(getNextLength(spawnedLength, length * 20)), triggerDepth);
+                Bukkit.getPluginManager().callEvent(beamHitEntityEvent);
+                double damage = beamHitEntityEvent.getDamage();
+                if (damage > 0) {
+                    DamageFrame.damage(entity, from, power.getNamespacedKey().toString(), damage, suppressMelee, stack);
                 }
+                hitMobs.add(entity.getUniqueId());
             }
             return hitMobs;
         }
 
-        private boolean canHit(Location loc, Entity entity) {
-            BoundingBox boundingBox = entity.getBoundingBox();
-            BoundingBox particleBox = getBoundingBox(loc);
-
-            return boundingBox.overlaps(particleBox) || particleBox.overlaps(boundingBox);
-        }
-
         private BoundingBox getBoundingBox(Location loc) {
             double initalBias = 0.2;
             double x = Math.max(offsetX, initalBias);
@@ -11,11 +11,11 @@ import org.bukkit.event.entity.ProjectileHitEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 import think.rpgitems.I18n;
+import think.rpgitems.data.DamageFrame;
 import think.rpgitems.event.BeamEndEvent;
 import think.rpgitems.event.BeamHitBlockEvent;
 import think.rpgitems.event.BeamHitEntityEvent;
 import think.rpgitems.power.*;
-import think.rpgitems.utils.LightContext;
 
 import javax.annotation.Nullable;
 import java.util.concurrent.ThreadLocalRandom;
@@ -101,11 +101,13 @@ public class Explosion extends BasePower {
         public PowerResult<Void> fire(Player player, ItemStack stack, Location location) {
             if (ThreadLocalRandom.current().nextDouble(100) < getChance()) {
                 if (!getItem().consumeDurability(stack, getCost())) return PowerResult.cost();
-                LightContext.putTemp(player.getUniqueId(), DAMAGE_SOURCE, getPower().getNamespacedKey().toString());
-                LightContext.putTemp(player.getUniqueId(), SUPPRESS_MELEE, false);
-                LightContext.putTemp(player.getUniqueId(), DAMAGE_SOURCE_ITEM, stack);
-                boolean explosion = NmsUtils.createExplosion(location.getWorld(), player, location.getX(), location.getY(), location.getZ(), getExplosionPower(), false, false);
-                LightContext.clear();
+                boolean explosion;
+                DamageFrame.push(player, getPower().getNamespacedKey().toString(), Double.NaN, false, stack);
+                try {
+                    explosion = NmsUtils.createExplosion(location.getWorld(), player, location.getX(), location.getY(), location.getZ(), getExplosionPower(), false, false);
+                } finally {
+                    DamageFrame.pop();
+                }
                 return explosion ? PowerResult.ok() : PowerResult.fail();
             }
             return PowerResult.noop();
@@ -23,8 +23,8 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerToggleSneakEvent;
 import org.bukkit.event.player.PlayerToggleSprintEvent;
 import org.bukkit.inventory.ItemStack;
-import think.rpgitems.Events;
 import think.rpgitems.I18n;
+import think.rpgitems.data.LaunchContext;
 import think.rpgitems.power.*;
 
 import static think.rpgitems.power.Utils.checkCooldown;
@@ -80,8 +80,7 @@ public class FireballPower extends BasePower {
             if (!checkCooldown(getPower(), player, getCooldown(), true, true)) return PowerResult.cd();
             if (!getItem().consumeDurability(stack, getCost())) return PowerResult.cost();
             player.playSound(player.getLocation(), Sound.ENTITY_GHAST_SHOOT, 1.0f, 1.0f);
-            Events.registerRPGProjectile(getPower().getItem(), stack, player);
-            SmallFireball entity = player.launchProjectile(SmallFireball.class);
+            SmallFireball entity = LaunchContext.launch(getPower().getItem(), stack, player, SmallFireball.class);
             entity.setPersistent(false);
             return PowerResult.ok();
         }
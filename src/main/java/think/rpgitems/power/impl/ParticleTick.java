@@ -21,13 +21,14 @@ import static think.rpgitems.power.Utils.checkCooldown;
  */
 @SuppressWarnings("WeakerAccess")
 @Meta(defaultTrigger = "TICK", implClass = ParticleTick.Impl.class)
-public class ParticleTick extends ParticlePower {
+public class ParticleTick extends ParticlePower implements IntervalTick {
     @Property(order = 1)
     public int interval = 15;
 
     /**
      * Interval of particle effect
      */
+    @Override
     public int getInterval() {
         return interval;
     }
@@ -51,12 +52,17 @@ public class ParticleTick extends ParticlePower {
 
         @Override
         public PowerResult<Void> tick(Player player, ItemStack stack) {
-            return fire(player, stack);
+            if (!TickScheduler.instance().tryRun(player, getPower(), getInterval())) return PowerResult.cd();
+            return spawn(player, stack);
         }
 
         @Override
         public PowerResult<Void> fire(Player player, ItemStack stack) {
             if (!checkCooldown(getPower(), player, getInterval(), false, true)) return PowerResult.cd();
+            return spawn(player, stack);
+        }
+
+        private PowerResult<Void> spawn(Player player, ItemStack stack) {
             if (!getItem().consumeDurability(stack, getCost())) return PowerResult.cost();
             spawnParticle(player);
             return PowerResult.ok();
@@ -69,7 +75,7 @@ public class ParticleTick extends ParticlePower {
 
         @Override
         public PowerResult<Void> sneaking(Player player, ItemStack stack) {
-            return fire(player, stack);
+            return tick(player, stack);
         }
     }
 }
@@ -10,7 +10,6 @@ import think.rpgitems.power.*;
 import think.rpgitems.utils.PotionEffectUtils;
 
 import static java.lang.Double.min;
-import static think.rpgitems.power.Utils.checkAndSetCooldown;
 
 /**
  * Power potiontick.
@@ -21,7 +20,7 @@ import static think.rpgitems.power.Utils.checkAndSetCooldown;
  */
 @SuppressWarnings("WeakerAccess")
 @Meta(defaultTrigger = "TICK", implClass = PotionTick.Impl.class)
-public class PotionTick extends BasePower {
+public class PotionTick extends BasePower implements IntervalTick {
 
     @Deserializer(PotionEffectUtils.class)
     @Serializer(PotionEffectUtils.class)
@@ -56,6 +55,7 @@ public class PotionTick extends BasePower {
     /**
      * Interval of this power
      */
+    @Override
     public int getInterval() {
         return interval;
     }
@@ -100,7 +100,7 @@ public class PotionTick extends BasePower {
         }
 
         private PowerResult<Void> fire(Player player, ItemStack stack) {
-            if (!checkAndSetCooldown(getPower(), player, getInterval(), false, true, getItem().getUid() + "." + "potiontick." + getEffect().getName()))
+            if (!TickScheduler.instance().tryRun(player, getPower(), getInterval()))
                 return PowerResult.cd();
             if (!getItem().consumeDurability(stack, getCost())) return PowerResult.cost();
             double health = player.getHealth();
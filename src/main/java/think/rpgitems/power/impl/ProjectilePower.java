@@ -20,6 +20,7 @@ import org.bukkit.util.Vector;
 import think.rpgitems.Events;
 import think.rpgitems.I18n;
 import think.rpgitems.RPGItems;
+import think.rpgitems.data.LaunchContext;
 import think.rpgitems.power.*;
 import think.rpgitems.utils.cast.CastUtils;
 import think.rpgitems.utils.cast.RangedDoubleValue;
@@ -430,7 +431,18 @@ public class ProjectilePower extends BasePower {
         }
 
         private void fire(Player player, LivingEntity source, ItemStack stack, float speedFactor, CastUtils.CastLocation castLocation) {
+            LaunchContext.push(getPower().getItem(), stack, player);
+            try {
+                fireVolley(player, source, stack, speedFactor, castLocation);
+            } finally {
+                LaunchContext.pop();
+            }
+        }
 
+        private void fireVolley(Player player, LivingEntity source, ItemStack stack, float speedFactor, CastUtils.CastLocation castLocation) {
+            if (source != player) {
+                LaunchContext.addSource(source);
+            }
             for (int i = 0; i < (isCone() ? getAmount() : 1); i++) {
                 RoundedConeInfo roundedConeInfo = generateConeInfo(isCone() ? getRange() : 0, getFiringR(), getFiringTheta(), getFiringPhi(), getInitialRotation());
                 if (getFiringLocation().equals(FiringLocation.TARGET) && castLocation != null) {
@@ -455,6 +467,7 @@ public class ProjectilePower extends BasePower {
                         }
                     }).runTaskLater(RPGItems.plugin, 1);
                     source = spawn;
+                    LaunchContext.addSource(spawn);
                 }
                 fire(player, source, stack, roundedConeInfo, speedFactor);
             }
@@ -464,7 +477,6 @@ public class ProjectilePower extends BasePower {
         private void fire(Player player, LivingEntity source, ItemStack stack, RoundedConeInfo roundedConeInfo, float speedFactor) {
             Vector direction1 = source.getEyeLocation().getDirection();
             Vector v = CastUtils.makeCone(source.getEyeLocation(), direction1, roundedConeInfo);
-            Events.registerRPGProjectile(getPower().getItem(), stack, player, source);
             org.bukkit.entity.Projectile projectile = source.launchProjectile(getProjectileType(), v.clone().normalize().multiply(getSpeed() * speedFactor));
             if (projectile instanceof AbstractArrow) {
                 ((AbstractArrow) projectile).setPickupStatus(AbstractArrow.PickupStatus.DISALLOWED);
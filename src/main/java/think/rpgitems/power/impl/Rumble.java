@@ -14,15 +14,13 @@ import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 import think.rpgitems.I18n;
 import think.rpgitems.RPGItems;
-import think.rpgitems.data.Context;
+import think.rpgitems.data.DamageFrame;
 import think.rpgitems.power.*;
 
 import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Random;
 
-import static think.rpgitems.Events.DAMAGE_SOURCE;
-import static think.rpgitems.Events.OVERRIDING_DAMAGE;
 import static think.rpgitems.power.Utils.checkCooldown;
 import static think.rpgitems.power.Utils.getNearbyEntities;
 
@@ -153,12 +151,7 @@ public class Rumble extends BasePower {
                                     continue;
                                 }
                                 if (getDamage() > 0) {
-                                    Context.instance().putTemp(player.getUniqueId(), DAMAGE_SOURCE, getNamespacedKey().toString());
-                                    Context.instance().putTemp(player.getUniqueId(), OVERRIDING_DAMAGE, getDamage());
-                                    ((LivingEntity) e).damage(getDamage(), player);
-                                    Context.instance().putTemp(player.getUniqueId(), OVERRIDING_DAMAGE, null);
-                                    Context.instance().putTemp(player.getUniqueId(), DAMAGE_SOURCE, null);
-
+                                    DamageFrame.damage((LivingEntity) e, player, getNamespacedKey().toString(), getDamage(), false, null);
                                 }
                             }
                         }
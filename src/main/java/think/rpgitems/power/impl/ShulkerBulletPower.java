@@ -8,9 +8,9 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerToggleSneakEvent;
 import org.bukkit.event.player.PlayerToggleSprintEvent;
 import org.bukkit.inventory.ItemStack;
-import think.rpgitems.Events;
 import think.rpgitems.I18n;
 import think.rpgitems.data.Context;
+import think.rpgitems.data.LaunchContext;
 import think.rpgitems.power.*;
 
 import java.util.List;
@@ -83,8 +83,7 @@ public class ShulkerBulletPower extends BasePower {
         public PowerResult<Void> fire(Player player, ItemStack stack) {
             if (!checkCooldown(getPower(), player, getCooldown(), true, true)) return PowerResult.cd();
             if (!getItem().consumeDurability(stack, getCost())) return PowerResult.cost();
-            Events.registerRPGProjectile(getItem(), stack, player);
-            org.bukkit.entity.ShulkerBullet bullet = player.launchProjectile(org.bukkit.entity.ShulkerBullet.class, player.getEyeLocation().getDirection());
+            org.bukkit.entity.ShulkerBullet bullet = LaunchContext.launch(getItem(), stack, player, org.bukkit.entity.ShulkerBullet.class, player.getEyeLocation().getDirection());
             bullet.setPersistent(false);
             List<LivingEntity> entities = getLivingEntitiesInCone(getNearestLivingEntities(getPower(), player.getEyeLocation(), player, getRange(), 0), player.getLocation().toVector(), 30, player.getLocation().getDirection());
             if (!entities.isEmpty()) {
@@ -8,6 +8,7 @@ import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import think.rpgitems.Events;
 import think.rpgitems.I18n;
+import think.rpgitems.data.LaunchContext;
 import think.rpgitems.power.*;
 import think.rpgitems.utils.PotionEffectUtils;
 
@@ -89,8 +90,7 @@ public class TippedArrows extends BasePower {
             if (!checkCooldown(getPower(), player, getCooldown(), true, true)) return PowerResult.cd();
             if (!getItem().consumeDurability(stack, getCost())) return PowerResult.cost();
             player.playSound(player.getLocation(), Sound.ENTITY_ARROW_SHOOT, 1.0f, 1.0f);
-            Events.registerRPGProjectile(getPower().getItem(), stack, player);
-            org.bukkit.entity.TippedArrow arrow = player.launchProjectile(org.bukkit.entity.TippedArrow.class);
+            org.bukkit.entity.TippedArrow arrow = LaunchContext.launch(getPower().getItem(), stack, player, org.bukkit.entity.TippedArrow.class);
             arrow.addCustomEffect(new PotionEffect(getType(), getDuration(), getAmplifier()), true);
             Events.autoRemoveProjectile(arrow.getEntityId());
             return PowerResult.ok();
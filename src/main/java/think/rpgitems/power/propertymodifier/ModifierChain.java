@@ -0,0 +1,118 @@
+package think.rpgitems.power.propertymodifier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import think.rpgitems.item.ItemManager;
+import think.rpgitems.item.RPGItem;
+import think.rpgitems.power.Power;
+import think.rpgitems.power.PropertyInstance;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modifiers applying to the powers fired by a player with an item stack, sorted by priority.
+ * <p>
+ * The modifiers matching each (power, property) are resolved on first use.
+ */
+@SuppressWarnings("rawtypes")
+public final class ModifierChain {
+    private static final Cache<ChainKey, ModifierChain> chains = CacheBuilder.newBuilder()
+            .maximumSize(4096)
+            .expireAfterAccess(1, TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+
+    private final List<Modifier> modifiers;
+    private final Map<Power, Map<PropertyInstance, List<Modifier<Double>>>> resolved = new ConcurrentHashMap<>();
+    private volatile boolean valid = true;
+
+    private ModifierChain(List<Modifier> modifiers) {
+        this.modifiers = modifiers;
+    }
+
+    public static ModifierChain get(Player player, ItemStack stack) {
+        Optional<String> stackId = ItemManager.identify(stack).getStackId();
+        if (!stackId.isPresent()) {
+            return resolve(player, stack);
+        }
+        try {
+            return chains.get(new ChainKey(player.getUniqueId(), stackId.get()), () -> resolve(player, stack));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static ModifierChain resolve(Player player, ItemStack stack) {
+        List<Modifier> modifiers = new ArrayList<>(RPGItem.getModifiers(player));
+        modifiers.addAll(RPGItem.getModifiers(stack));
+        modifiers.sort(Comparator.comparing(Modifier::priority));
+        return new ModifierChain(modifiers);
+    }
+
+    /**
+     * Drops all resolved chains, must be called whenever modifiers of a player or an item stack change
+     */
+    public static void invalidateAll() {
+        chains.asMap().values().forEach(chain -> chain.valid = false);
+        chains.invalidateAll();
+    }
+
+    /**
+     * Drops the chains resolved for a player
+     */
+    public static void release(UUID playerId) {
+        chains.asMap().keySet().removeIf(key -> key.playerId().equals(playerId));
+    }
+
+    public static CacheStats stats() {
+        return chains.stats();
+    }
+
+    public static long size() {
+        return chains.size();
+    }
+
+    /**
+     * @return Whether this chain still reflects the modifiers of its player and item stack
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    public boolean isEmpty() {
+        return modifiers.isEmpty();
+    }
+
+    public double apply(Power orig, PropertyInstance property, ItemStack stack, double value) {
+        if (modifiers.isEmpty()) return value;
+        List<Modifier<Double>> matched = resolved
+                .computeIfAbsent(orig, p -> new ConcurrentHashMap<>())
+                .computeIfAbsent(property, p -> match(orig, p));
+        if (matched.isEmpty()) return value;
+        RgiParameter<Double> parameter = new RgiParameter<>(orig.getItem(), orig, stack, value);
+        for (Modifier<Double> modifier : matched) {
+            parameter.setValue(modifier.apply(parameter));
+        }
+        return parameter.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Modifier<Double>> match(Power orig, PropertyInstance property) {
+        List<Modifier<Double>> matched = new ArrayList<>();
+        for (Modifier modifier : modifiers) {
+            if (modifier.getModifierTargetType() == Double.class && modifier.match(orig, property)) {
+                matched.add((Modifier<Double>) modifier);
+            }
+        }
+        return matched.isEmpty() ? Collections.emptyList() : matched;
+    }
+
+    private record ChainKey(UUID playerId, String stackId) {
+    }
+}
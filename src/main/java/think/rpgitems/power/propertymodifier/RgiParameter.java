@@ -8,7 +8,7 @@ public class RgiParameter<T> {
     RPGItem item;
     Power power;
     ItemStack itemStack;
-    private final T value;
+    private T value;
 
     public RgiParameter(RPGItem item, Power power, ItemStack itemStack, T value) {
         this.item = item;
@@ -32,4 +32,11 @@ public class RgiParameter<T> {
     public T getValue() {
         return value;
     }
+
+    /**
+     * Carries the result of one modifier to the next one of a chain, modifiers must not keep the parameter
+     */
+    void setValue(T value) {
+        this.value = value;
+    }
 }
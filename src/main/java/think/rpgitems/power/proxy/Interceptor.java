@@ -1,10 +1,10 @@
 package think.rpgitems.power.proxy;
 
 import cat.nyaa.nyaacore.Pair;
-import cat.nyaa.nyaacore.utils.ItemTagUtils;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
 import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
 import net.bytebuddy.implementation.MethodDelegation;
 import net.bytebuddy.implementation.bind.annotation.AllArguments;
@@ -14,135 +14,143 @@ import net.bytebuddy.matcher.ElementMatchers;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import think.rpgitems.RPGItems;
-import think.rpgitems.item.RPGItem;
+import think.rpgitems.item.ItemManager;
 import think.rpgitems.power.Power;
 import think.rpgitems.power.PowerManager;
 import think.rpgitems.power.PropertyInstance;
-import think.rpgitems.power.propertymodifier.Modifier;
-import think.rpgitems.power.propertymodifier.RgiParameter;
+import think.rpgitems.power.propertymodifier.ModifierChain;
 import think.rpgitems.power.trigger.Trigger;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static think.rpgitems.item.RPGItem.getModifiers;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Interceptor {
     private static final Cache<String, Pair<origPowerHolder, Power>> POWER_CACHE = CacheBuilder.newBuilder().weakValues().build();
+    // One generated class per (power class, trigger power interface), kept for good
+    private static final Map<Class<? extends Power>, Map<Class<?>, ProxyClass>> PROXY_CLASSES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, MethodHandle> INTERCEPTOR_GETTERS = new ConcurrentHashMap<>();
+    private static final String INTERCEPTOR_FIELD = "rgi$interceptor";
     private final Power orig;
     private final Player player;
     private final Map<Method, PropertyInstance> getters;
     private final ItemStack stack;
     private final MethodHandles.Lookup lookup;
+    private ModifierChain modifierChain;
 
     protected Interceptor(Power orig, Player player, ItemStack stack, MethodHandles.Lookup lookup) {
         this.lookup = lookup;
         this.orig = orig;
         this.player = player;
-        this.getters = PowerManager.getProperties(orig.getClass())
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(e -> e.getValue().getKey(), e -> e.getValue().getValue()));
+        this.getters = PowerManager.getGetters(orig.getClass());
         this.stack = stack;
     }
 
     public static Power create(Power orig, Player player, ItemStack stack, Trigger trigger) {
-        Pair<origPowerHolder, Power> result = POWER_CACHE.getIfPresent(getCacheKey(player, stack, orig));
+        String cacheKey = getCacheKey(player, stack, orig, trigger);
+        Pair<origPowerHolder, Power> result = POWER_CACHE.getIfPresent(cacheKey);
         if (result != null) {
             if (result.getKey().itemStack().equals(stack) && result.getKey().playerId().equals(player.getUniqueId()) && result.getKey().orig().equals(orig))
                 return result.getValue();
         }
         Power proxyPower = makeProxy(orig, player, stack, trigger);
-        POWER_CACHE.put(getCacheKey(player, stack, orig), Pair.of(new origPowerHolder(player.getUniqueId(), stack, orig), proxyPower));
+        POWER_CACHE.put(cacheKey, Pair.of(new origPowerHolder(player.getUniqueId(), stack, orig), proxyPower));
         return proxyPower;
 
     }
 
     private static Power makeProxy(Power orig, Player player, ItemStack stack, Trigger trigger) {
-        MethodHandles.Lookup lookup = orig.getLookup();
-        if (lookup == null) lookup = MethodHandles.lookup();
-        if (lookup.lookupClass() != orig.getClass()) {
-            try {
-                lookup = MethodHandles.privateLookupIn(orig.getClass(), lookup);
-            } catch (IllegalAccessException e) {
-                RPGItems.logger.severe("make proxy error: can not get lookup (is it outdated?): " + orig.getClass());
-                e.printStackTrace();
-                return orig;
-            }
-        }
+        MethodHandles.Lookup lookup = getLookup(orig.getClass(), orig.getLookup());
+        if (lookup == null) return orig;
 
-        MethodHandle constructorMH;
+        ProxyClass proxyClass = PROXY_CLASSES
+                .computeIfAbsent(orig.getClass(), c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(trigger.getPowerClass(), t -> makeProxyClass(orig.getClass(), t, lookup));
+        if (proxyClass == null) return orig;
 
         try {
-            Class<? extends Power> proxyClass = makeProxyClass(orig, player, stack, trigger, lookup);
-            constructorMH = lookup.findConstructor(proxyClass, MethodType.methodType(void.class));
-        } catch (NoSuchMethodException | IllegalAccessException e) {
-            RPGItems.logger.severe("make proxy error: not instantiatable: " + orig.getClass());
+            Power proxy = (Power) proxyClass.constructor().invoke();
+            proxyClass.interceptorSetter().invoke(proxy, new Interceptor(orig, player, stack, lookup));
+            return proxy;
+        } catch (Throwable e) {
+            RPGItems.logger.severe("make proxy error: not instantiatable (invoke error): " + orig.getClass());
             e.printStackTrace();
             return orig;
         }
+    }
 
+    /**
+     * @return The power the proxy was made from, or {@code power} itself if it is not a proxy
+     */
+    public static Power unwrap(Power power) {
+        if (!(power instanceof NotUser)) return power;
+        MethodHandle getter = INTERCEPTOR_GETTERS.get(power.getClass());
+        if (getter == null) return power;
         try {
-            return (Power) constructorMH.invoke();
+            return ((Interceptor) getter.invoke(power)).orig;
         } catch (Throwable e) {
-            RPGItems.logger.severe("make proxy error: not instantiatable (invoke error): " + orig.getClass());
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static MethodHandles.Lookup getLookup(Class<? extends Power> origClass, MethodHandles.Lookup lookup) {
+        if (lookup == null) lookup = MethodHandles.lookup();
+        if (lookup.lookupClass() == origClass) return lookup;
+        try {
+            return MethodHandles.privateLookupIn(origClass, lookup);
+        } catch (IllegalAccessException e) {
+            RPGItems.logger.severe("make proxy error: can not get lookup (is it outdated?): " + origClass);
             e.printStackTrace();
-            return orig;
+            return null;
         }
     }
 
-    private static String getCacheKey(Player player, ItemStack itemStack, Power orig) {
+    private static String getCacheKey(Player player, ItemStack itemStack, Power orig, Trigger trigger) {
         String playerHash = player.getUniqueId().toString();
-        String itemHash = ItemTagUtils.getString(itemStack, RPGItem.NBT_ITEM_UUID).orElseGet(() -> String.valueOf(itemStack.hashCode()));
+        String itemHash = ItemManager.identify(itemStack).getStackId().orElseGet(() -> String.valueOf(itemStack.hashCode()));
         String origHash = orig.getName() + ":" + orig.getPlaceholderId() + ":" + orig.getClass().getName();
-        return playerHash + "-#-" + itemHash + "-#-" + origHash;
+        return playerHash + "-#-" + itemHash + "-#-" + origHash + "-#-" + trigger.getPowerClass().getName();
 
     }
 
-    private static Class<? extends Power> makeProxyClass(Power orig, Player player, ItemStack stack, Trigger trigger, MethodHandles.Lookup lookup) throws NoSuchMethodException {
-        Class<? extends Power> origClass = orig.getClass();
-
-
-        return new ByteBuddy()
-                .subclass(origClass)
-                .implement(new Class[]{trigger.getPowerClass()})
-                .implement(NotUser.class)
-                .method(ElementMatchers.any())
-                .intercept(MethodDelegation.to(new Interceptor(orig, player, stack, lookup)))
-                .make()
-                .load(origClass.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(lookup))
-                .getLoaded();
+    private static ProxyClass makeProxyClass(Class<? extends Power> origClass, Class<?> powerInterface, MethodHandles.Lookup lookup) {
+        try {
+            Class<? extends Power> proxyClass = new ByteBuddy()
+                    .subclass(origClass)
+                    .implement(new Class[]{powerInterface})
+                    .implement(NotUser.class)
+                    .defineField(INTERCEPTOR_FIELD, Interceptor.class, Visibility.PUBLIC)
+                    .method(ElementMatchers.any())
+                    .intercept(MethodDelegation.toField(INTERCEPTOR_FIELD))
+                    .make()
+                    .load(origClass.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(lookup))
+                    .getLoaded();
+            INTERCEPTOR_GETTERS.put(proxyClass, lookup.findGetter(proxyClass, INTERCEPTOR_FIELD, Interceptor.class));
+            return new ProxyClass(
+                    lookup.findConstructor(proxyClass, MethodType.methodType(void.class)),
+                    lookup.findSetter(proxyClass, INTERCEPTOR_FIELD, Interceptor.class)
+            );
+        } catch (NoSuchMethodException | NoSuchFieldException | IllegalAccessException e) {
+            RPGItems.logger.severe("make proxy error: not instantiatable: " + origClass);
+            e.printStackTrace();
+            return null;
+        }
     }
 
     @RuntimeType
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public Object intercept(@AllArguments Object[] args, @Origin Method method) {
         try {
-            if (getters.containsKey(method)) {
-                PropertyInstance propertyInstance = getters.get(method);
+            PropertyInstance propertyInstance = getters.get(method);
+            if (propertyInstance != null) {
                 Class<?> type = propertyInstance.field().getType();
-                List<Modifier> playerModifiers = getModifiers(player);
-                List<Modifier> stackModifiers = getModifiers(stack);
-                List<Modifier> modifiers = Stream.concat(playerModifiers.stream(), stackModifiers.stream()).sorted(Comparator.comparing(Modifier::priority)).toList();
                 // Numeric modifiers
                 if (type == int.class || type == Integer.class || type == float.class || type == Float.class || type == double.class || type == Double.class) {
-
-                    List<Modifier<Double>> numberModifiers = modifiers.stream().filter(m -> (m.getModifierTargetType() == Double.class) && m.match(orig, propertyInstance)).map(m -> (Modifier<Double>) m).toList();
                     Number value = (Number) invokeMethod(method, orig, args);
-                    double origValue = value.doubleValue();
-                    for (Modifier<Double> numberModifier : numberModifiers) {
-                        RgiParameter param = new RgiParameter<>(orig.getItem(), orig, stack, origValue);
-
-                        origValue = numberModifier.apply(param);
-                    }
+                    double origValue = getModifierChain().apply(orig, propertyInstance, stack, value.doubleValue());
                     if (int.class.equals(type) || Integer.class.equals(type)) {
                         return (int) Math.round(origValue);
                     } else if (float.class.equals(type) || Float.class.equals(type)) {
@@ -161,15 +169,23 @@ public class Interceptor {
         return null;
     }
 
+    private ModifierChain getModifierChain() {
+        ModifierChain chain = modifierChain;
+        if (chain == null || !chain.isValid()) {
+            chain = modifierChain = ModifierChain.get(player, stack);
+        }
+        return chain;
+    }
+
     private Object invokeMethod(Method method, Object obj, Object... args) throws Throwable {
-        //method.trySetAccessible();
-        MethodHandle MH;
-        MH = lookup.unreflect(method);
-        MH = MH.bindTo(obj);
-        return MH.invokeWithArguments(args);
+        MethodHandle handle = PowerManager.getMethodHandle(orig.getClass(), method, lookup);
+        return (Object) handle.invokeExact(obj, args);
     }
 }
 
 record origPowerHolder(UUID playerId, ItemStack itemStack, Power orig) {
 }
 
+record ProxyClass(MethodHandle constructor, MethodHandle interceptorSetter) {
+}
+
@@ -163,6 +163,26 @@ public class WGSupport {
         } else return !(enabled.contains(name) || enabled.contains("*"));
     }
 
+    public static void release(UUID uuid) {
+        if (!hasSupport) {
+            return;
+        }
+        warningMessageByPlayer.remove(uuid);
+        disabledPowerByPlayer.remove(uuid);
+        enabledPowerByPlayer.remove(uuid);
+        disabledItemByPlayer.remove(uuid);
+        enabledItemByPlayer.remove(uuid);
+        disabledByPlayer.remove(uuid);
+    }
+
+    public static int size() {
+        if (!hasSupport) {
+            return 0;
+        }
+        return warningMessageByPlayer.size() + disabledPowerByPlayer.size() + enabledPowerByPlayer.size()
+                + disabledItemByPlayer.size() + enabledItemByPlayer.size() + disabledByPlayer.size();
+    }
+
     public static void unload() {
         if (!hasSupport) {
             return;
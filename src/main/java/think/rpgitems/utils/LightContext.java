@@ -15,13 +15,30 @@ public class LightContext {
 
     @SuppressWarnings("unchecked")
     public static <T> Optional<T> getTemp(UUID uuid, String key) {
-        Map<String, Object> stringObjectMap = context.computeIfAbsent(uuid, uuid1 -> new HashMap<>());
+        Map<String, Object> stringObjectMap = context.get(uuid);
+        if (stringObjectMap == null) return Optional.empty();
         return Optional.ofNullable((T) stringObjectMap.get(key));
     }
 
     public static void removeTemp(UUID uuid, String key) {
-        Map<String, Object> stringObjectMap = context.computeIfAbsent(uuid, uuid1 -> new HashMap<>());
+        Map<String, Object> stringObjectMap = context.get(uuid);
+        if (stringObjectMap == null) return;
         stringObjectMap.remove(key);
+        if (stringObjectMap.isEmpty()) {
+            context.remove(uuid);
+        }
+    }
+
+    public static void release(UUID uuid) {
+        context.remove(uuid);
+    }
+
+    public static int size() {
+        int size = 0;
+        for (Map<String, Object> map : context.values()) {
+            size += map.size();
+        }
+        return size;
     }
 
     public static void clear() {
@@ -0,0 +1,152 @@
+package think.rpgitems.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Living entities of a world grouped by the chunk they are in.
+ * <p>
+ * An index lives for at most one tick and is shared by every hit test in its world during that tick. A chunk is
+ * read the first time a hit test touches it, so the index only pays for the area swept in that tick. Bounding boxes
+ * are taken when their chunk is read, so entities moved later in the same tick are still seen where they were.
+ */
+public final class LivingEntityIndex {
+    // chunks are 16 blocks wide
+    private static final int CHUNK_SHIFT = 4;
+    // entities are looked up in the chunk of their location, so tests reach this far into neighbouring chunks
+    private static final double MARGIN = 2.0;
+    private static final List<Entry> NONE = Collections.emptyList();
+    private static final Map<UUID, LivingEntityIndex> indices = new HashMap<>();
+
+    private final Map<Long, List<Entry>> chunks = new HashMap<>();
+    private final double[] range = new double[2];
+    private final World world;
+    private final int tick;
+
+    private LivingEntityIndex(World world, int tick) {
+        this.world = world;
+        this.tick = tick;
+    }
+
+    public static LivingEntityIndex of(World world) {
+        int current = Bukkit.getCurrentTick();
+        LivingEntityIndex index = indices.get(world.getUID());
+        if (index == null || index.tick != current) {
+            index = new LivingEntityIndex(world, current);
+            indices.put(world.getUID(), index);
+        }
+        return index;
+    }
+
+    /**
+     * Drops the indices built so far, so they do not keep entities after their tick
+     */
+    public static void clear() {
+        if (!indices.isEmpty()) {
+            indices.clear();
+        }
+    }
+
+    /**
+     * Finds the entity first hit by a box swept along a segment
+     *
+     * @param halfX  Half width of the swept box along the x axis, likewise for y and z
+     * @param filter Entities that can be hit
+     * @return Entity whose bounding box the swept box overlaps first, or null if it overlaps none
+     */
+    @Nullable
+    public LivingEntity sweep(Vector from, Vector to, double halfX, double halfY, double halfZ, Predicate<LivingEntity> filter) {
+        double dx = to.getX() - from.getX();
+        double dy = to.getY() - from.getY();
+        double dz = to.getZ() - from.getZ();
+        int minX = chunk(Math.min(from.getX(), to.getX()) - halfX - MARGIN), maxX = chunk(Math.max(from.getX(), to.getX()) + halfX + MARGIN);
+        int minZ = chunk(Math.min(from.getZ(), to.getZ()) - halfZ - MARGIN), maxZ = chunk(Math.max(from.getZ(), to.getZ()) + halfZ + MARGIN);
+        LivingEntity hit = null;
+        double first = Double.POSITIVE_INFINITY;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (Entry entry : entries(x, z)) {
+                    BoundingBox box = entry.box;
+                    range[0] = 0;
+                    range[1] = 1;
+                    if (!clip(from.getX(), dx, box.getMinX() - halfX, box.getMaxX() + halfX)
+                            || !clip(from.getY(), dy, box.getMinY() - halfY, box.getMaxY() + halfY)
+                            || !clip(from.getZ(), dz, box.getMinZ() - halfZ, box.getMaxZ() + halfZ)) {
+                        continue;
+                    }
+                    if (range[0] < first && filter.test(entry.entity)) {
+                        first = range[0];
+                        hit = entry.entity;
+                    }
+                }
+            }
+        }
+        return hit;
+    }
+
+    private List<Entry> entries(int x, int z) {
+        long key = key(x, z);
+        List<Entry> entries = chunks.get(key);
+        if (entries == null) {
+            entries = NONE;
+            if (world.isChunkLoaded(x, z)) {
+                for (Entity entity : world.getChunkAt(x, z).getEntities()) {
+                    if (!(entity instanceof LivingEntity living)) continue;
+                    if (entries == NONE) {
+                        entries = new ArrayList<>(4);
+                    }
+                    entries.add(new Entry(living, living.getBoundingBox()));
+                }
+            }
+            chunks.put(key, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * Narrows the part of the segment within the slab of one axis
+     *
+     * @return Whether any part is left
+     */
+    private boolean clip(double origin, double delta, double min, double max) {
+        if (Math.abs(delta) < 1e-9) {
+            return origin > min && origin < max;
+        }
+        double t1 = (min - origin) / delta;
+        double t2 = (max - origin) / delta;
+        if (t1 > t2) {
+            double t = t1;
+            t1 = t2;
+            t2 = t;
+        }
+        range[0] = Math.max(range[0], t1);
+        range[1] = Math.min(range[1], t2);
+        return range[0] < range[1];
+    }
+
+    private static int chunk(double coordinate) {
+        return (int) Math.floor(coordinate) >> CHUNK_SHIFT;
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xffffffffL);
+    }
+
+    private static final class Entry {
+        private final LivingEntity entity;
+        private final BoundingBox box;
+
+        private Entry(LivingEntity entity, BoundingBox box) {
+            this.entity = entity;
+            this.box = box;
+        }
+    }
+}